@@ -0,0 +1,71 @@
+package benchmarks;
+
+import managers.ConcurrentHistoryManager;
+import managers.HistoryManager;
+import managers.InMemoryHistoryManager;
+import models.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ConcurrentHistoryBenchmark {
+
+    public enum Implementation {
+        SYNCHRONIZED,
+        CONCURRENT
+    }
+
+    @Param({"SYNCHRONIZED", "CONCURRENT"})
+    private Implementation implementation;
+
+    @Param({"10000"})
+    private int distinctTasks;
+
+    private HistoryManager history;
+    private Task[] tasks;
+
+    @Setup
+    public void setUp() {
+        if (implementation == Implementation.CONCURRENT) {
+            history = new ConcurrentHistoryManager(distinctTasks);
+        } else {
+            InMemoryHistoryManager delegate = new InMemoryHistoryManager();
+            // Так история была защищена в ConcurrentTaskManager до появления ConcurrentHistoryManager
+            history = new HistoryManager() {
+                @Override
+                public synchronized List<Task> getTasksHistory() {
+                    return delegate.getTasksHistory();
+                }
+
+                @Override
+                public synchronized void addTaskHistory(Task task) {
+                    delegate.addTaskHistory(task);
+                }
+
+                @Override
+                public synchronized void removeTaskHistory(Long id) {
+                    delegate.removeTaskHistory(id);
+                }
+            };
+        }
+        tasks = new Task[distinctTasks];
+        for (int i = 0; i < distinctTasks; i++) {
+            tasks[i] = TestData.task(i);
+            tasks[i].setId(i + 1);
+        }
+    }
+
+    @Benchmark
+    public void view() {
+        history.addTaskHistory(tasks[ThreadLocalRandom.current().nextInt(tasks.length)]);
+    }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import models.EpicTask;
+import models.SubTask;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EpicTaskBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int subTasks;
+
+    private EpicTask epic;
+
+    @Setup
+    public void setUp() {
+        epic = TestData.epic(0);
+        epic.setId(1);
+        for (int i = 0; i < subTasks; i++) {
+            SubTask subTask = TestData.subTask(i, epic.getId());
+            subTask.setId(i + 2);
+            epic.getSubTasks().add(subTask);
+        }
+        epic.updateStatus();
+        epic.updateTime();
+    }
+
+    @Benchmark
+    public LocalDateTime getStartTime() {
+        return epic.getStartTime();
+    }
+
+    @Benchmark
+    public Duration getDuration() {
+        return epic.getDuration();
+    }
+
+    @Benchmark
+    public LocalDateTime getEndTime() {
+        return epic.getEndTime();
+    }
+
+    @Benchmark
+    public void updateStatus() {
+        epic.updateStatus();
+    }
+}
@@ -0,0 +1,102 @@
+package benchmarks;
+
+import com.google.gson.*;
+import com.google.gson.reflect.TypeToken;
+import models.EpicTask;
+import models.SubTask;
+import models.Task;
+import org.openjdk.jmh.annotations.*;
+import server.HttpTaskServer;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GsonBenchmark {
+    private static final Type TASK_LIST = new TypeToken<ArrayList<Task>>(){}.getType();
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    // REFLECTIVE — прежняя настройка обработчиков: рефлексия и древовидные адаптеры времени,
+    // ADAPTERS — общий Gson сервера с потоковыми адаптерами моделей
+    @Param({"REFLECTIVE", "ADAPTERS"})
+    private String mapper;
+
+    private Gson gson;
+    private List<Task> tasks;
+    private EpicTask epic;
+    private String tasksJson;
+
+    @Setup
+    public void setUp() {
+        gson = "ADAPTERS".equals(mapper) ? HttpTaskServer.getGson() : new GsonBuilder()
+                .registerTypeAdapter(Duration.class, new TreeDurationAdapter())
+                .registerTypeAdapter(LocalDateTime.class, new TreeLocalDateTimeAdapter())
+                .create();
+        tasks = new ArrayList<>();
+        epic = TestData.epic(0);
+        epic.setId(1);
+        for (int i = 0; i < size; i++) {
+            Task task = TestData.task(i);
+            task.setId(i + 2);
+            tasks.add(task);
+            SubTask subTask = TestData.subTask(i, epic.getId());
+            subTask.setId(size + i + 2);
+            epic.getSubTasks().add(subTask);
+        }
+        epic.updateStatus();
+        epic.updateTime();
+        tasksJson = gson.toJson(tasks);
+    }
+
+    @Benchmark
+    public String serializeTasks() {
+        return gson.toJson(tasks);
+    }
+
+    @Benchmark
+    public String serializeEpic() {
+        return gson.toJson(epic);
+    }
+
+    @Benchmark
+    public List<Task> deserializeTasks() {
+        return gson.fromJson(tasksJson, TASK_LIST);
+    }
+
+    private static class TreeDurationAdapter implements JsonSerializer<Duration>, JsonDeserializer<Duration> {
+        @Override
+        public JsonElement serialize(Duration duration, Type type, JsonSerializationContext context) {
+            return new JsonPrimitive(duration.toMinutes());
+        }
+
+        @Override
+        public Duration deserialize(JsonElement json, Type type, JsonDeserializationContext context) {
+            return Duration.ofMinutes(json.getAsLong());
+        }
+    }
+
+    private static class TreeLocalDateTimeAdapter
+            implements JsonSerializer<LocalDateTime>, JsonDeserializer<LocalDateTime> {
+        @Override
+        public JsonElement serialize(LocalDateTime dateTime, Type type, JsonSerializationContext context) {
+            return new JsonPrimitive(dateTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        }
+
+        @Override
+        public LocalDateTime deserialize(JsonElement json, Type type, JsonDeserializationContext context) {
+            return LocalDateTime.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        }
+    }
+}
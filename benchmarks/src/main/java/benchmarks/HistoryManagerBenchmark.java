@@ -0,0 +1,50 @@
+package benchmarks;
+
+import managers.HistoryManager;
+import managers.InMemoryHistoryManager;
+import models.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryManagerBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int distinctTasks;
+
+    private HistoryManager history;
+    private Task[] tasks;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        history = new InMemoryHistoryManager();
+        tasks = new Task[distinctTasks];
+        for (int i = 0; i < distinctTasks; i++) {
+            tasks[i] = TestData.task(i);
+            tasks[i].setId(i + 1);
+            history.addTaskHistory(tasks[i]);
+        }
+    }
+
+    // Повторный просмотр уже известной задачи: удаление из середины списка и вставка в хвост
+    @Benchmark
+    public void addTaskHistory() {
+        history.addTaskHistory(tasks[cursor]);
+        if (++cursor == tasks.length) {
+            cursor = 0;
+        }
+    }
+
+    @Benchmark
+    public List<Task> getTasksHistory() {
+        return history.getTasksHistory();
+    }
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import managers.LongHashMap;
+import models.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LongMapBenchmark {
+
+    @Param({"1000", "1000000"})
+    private int size;
+
+    private Map<Long, Task> hashMap;
+    private LongHashMap<Task> longHashMap;
+    private long next;
+
+    @Setup
+    public void setUp() {
+        hashMap = new HashMap<>();
+        longHashMap = new LongHashMap<>();
+        for (long id = 1; id <= size; id++) {
+            Task task = TestData.task(id);
+            task.setId(id);
+            hashMap.put(id, task);
+            longHashMap.put(id, task);
+        }
+    }
+
+    private long nextId() {
+        next = next == size ? 1 : next + 1;
+        return next;
+    }
+
+    @Benchmark
+    public Task hashMapGet() {
+        return hashMap.get(nextId());
+    }
+
+    @Benchmark
+    public Task longHashMapGet() {
+        return longHashMap.get(nextId());
+    }
+
+    // Удаление и вставка того же id: у HashMap на каждую пару приходится новый узел и, за пределами кэша Long, новый ключ
+    @Benchmark
+    public Task hashMapChurn() {
+        long id = nextId();
+        Task task = hashMap.remove(id);
+        hashMap.put(id, task);
+        return task;
+    }
+
+    @Benchmark
+    public Task longHashMapChurn() {
+        long id = nextId();
+        Task task = longHashMap.remove(id);
+        longHashMap.put(id, task);
+        return task;
+    }
+}
@@ -0,0 +1,37 @@
+package benchmarks;
+
+import managers.LongHashMap;
+import models.Task;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Накладные расходы хранилища на одну задачу: размер графа карты за вычетом самих задач.
+// Запуск: java -Djdk.attach.allowAttachSelf -cp target/benchmarks.jar benchmarks.MapFootprint 1000000
+public class MapFootprint {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Task[] tasks = new Task[size];
+        for (int i = 0; i < size; i++) {
+            tasks[i] = TestData.task(i);
+            tasks[i].setId(i + 1);
+        }
+        long tasksOnly = GraphLayout.parseInstance((Object[]) tasks).totalSize();
+
+        Map<Long, Task> hashMap = new HashMap<>();
+        LongHashMap<Task> longHashMap = new LongHashMap<>();
+        for (Task task : tasks) {
+            hashMap.put(task.getId(), task);
+            longHashMap.put(task.getId(), task);
+        }
+
+        report("HashMap<Long, Task>", GraphLayout.parseInstance(hashMap, tasks).totalSize() - tasksOnly, size);
+        report("LongHashMap<Task>", GraphLayout.parseInstance(longHashMap, tasks).totalSize() - tasksOnly, size);
+    }
+
+    private static void report(String name, long bytes, int size) {
+        System.out.printf("%-22s %,14d bytes  %6.1f bytes/entry%n", name, bytes, (double) bytes / size);
+    }
+}
@@ -0,0 +1,83 @@
+package benchmarks;
+
+import managers.CompactionPolicy;
+import managers.DurabilityMode;
+import managers.DurabilityPolicy;
+import managers.FileBackedTaskManager;
+import managers.PersistenceMode;
+import managers.SnapshotFormat;
+import models.EpicTask;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PersistenceBenchmark {
+    private static final int SUBTASKS_PER_EPIC = 10;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"CSV", "BINARY"})
+    private SnapshotFormat format;
+
+    private Path dir;
+    private Path snapshot;
+    private Path exportTarget;
+    private FileBackedTaskManager manager;
+
+    // Данные наполняются через журнал без fsync, иначе режим SNAPSHOT переписывал бы файл на каждую вставку
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("kanban-bench");
+        Path source = dir.resolve("source.csv");
+        Files.writeString(source, "id,type,name,status,description,epic\n");
+        FileBackedTaskManager filler = new FileBackedTaskManager(source, PersistenceMode.JOURNAL, SnapshotFormat.CSV,
+                new CompactionPolicy(Long.MAX_VALUE, Long.MAX_VALUE, Duration.ofDays(365)),
+                new DurabilityPolicy(DurabilityMode.OS_BUFFERED, Duration.ZERO));
+        EpicTask epic = null;
+        for (int i = 0; i < size; i++) {
+            if (i % (SUBTASKS_PER_EPIC + 1) == 0) {
+                epic = TestData.epic(i);
+                filler.addEpicTask(epic);
+            } else if (i % 2 == 0) {
+                filler.addSubTask(TestData.subTask(i, epic.getId()));
+            } else {
+                filler.addTask(TestData.task(i));
+            }
+        }
+        snapshot = dir.resolve("snapshot." + format.name().toLowerCase());
+        filler.exportTo(snapshot, format);
+        filler.close();
+
+        manager = load();
+        exportTarget = dir.resolve("export." + format.name().toLowerCase());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        manager.close();
+        try (var files = Files.walk(dir)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void save() {
+        manager.exportTo(exportTarget, format);
+    }
+
+    @Benchmark
+    public FileBackedTaskManager load() {
+        return new FileBackedTaskManager(snapshot, PersistenceMode.SNAPSHOT, format);
+    }
+}
@@ -0,0 +1,62 @@
+package benchmarks;
+
+import managers.InMemoryTaskManager;
+import models.EpicTask;
+import models.SubTask;
+import models.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskManagerBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private InMemoryTaskManager manager;
+    private EpicTask epic;
+    private long next;
+
+    // Менеджер пересоздается на каждой итерации, чтобы добавленные задачи не копились между замерами
+    @Setup(Level.Iteration)
+    public void setUp() {
+        manager = new InMemoryTaskManager();
+        epic = TestData.epic(0);
+        manager.addEpicTask(epic);
+        for (int i = 0; i < size; i++) {
+            manager.addTask(TestData.task(i));
+        }
+        next = size;
+    }
+
+    @Benchmark
+    public Task addTask() {
+        Task task = TestData.task(next++);
+        manager.addTask(task);
+        return task;
+    }
+
+    @Benchmark
+    public SubTask addSubTask() {
+        SubTask subTask = TestData.subTask(next++, epic.getId());
+        manager.addSubTask(subTask);
+        return subTask;
+    }
+
+    @Benchmark
+    public boolean overlapCheck() {
+        return manager.hasTimeOverlap(TestData.task(size / 2));
+    }
+
+    @Benchmark
+    public List<Task> getPrioritizedTasks() {
+        return manager.getPrioritizedTasks();
+    }
+}
@@ -0,0 +1,35 @@
+package benchmarks;
+
+import models.EpicTask;
+import models.StatusEnum;
+import models.SubTask;
+import models.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+final class TestData {
+    static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+    static final Duration SLOT = Duration.ofMinutes(30);
+
+    private TestData() {
+    }
+
+    // Слоты идут через час, поэтому задачи с разными номерами никогда не пересекаются
+    static LocalDateTime slot(long n) {
+        return BASE_TIME.plusHours(n);
+    }
+
+    static Task task(long n) {
+        return new Task("task" + n, "description" + n, StatusEnum.NEW, slot(n), SLOT);
+    }
+
+    static EpicTask epic(long n) {
+        return new EpicTask("epic" + n, "description" + n, StatusEnum.NEW);
+    }
+
+    static SubTask subTask(long n, long epicId) {
+        StatusEnum status = n % 3 == 0 ? StatusEnum.DONE : StatusEnum.IN_PROGRESS;
+        return new SubTask("subTask" + n, "description" + n, status, slot(n), SLOT, epicId);
+    }
+}
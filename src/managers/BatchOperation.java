@@ -0,0 +1,71 @@
+package managers;
+
+import models.EpicTask;
+import models.SubTask;
+import models.Task;
+
+// Одна операция пакетного изменения. Для создания и обновления вид задачи берется из ее класса,
+// для удаления он задается явно вместе с id
+public class BatchOperation {
+    public enum Action {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    public enum Target {
+        TASK,
+        EPIC,
+        SUBTASK
+    }
+
+    private final Action action;
+    private final Target target;
+    private final long id;
+    private final Task task;
+
+    private BatchOperation(Action action, Target target, long id, Task task) {
+        this.action = action;
+        this.target = target;
+        this.id = id;
+        this.task = task;
+    }
+
+    public static BatchOperation create(Task task) {
+        return new BatchOperation(Action.CREATE, targetOf(task), 0, task);
+    }
+
+    public static BatchOperation update(Task task) {
+        return new BatchOperation(Action.UPDATE, targetOf(task), task.getId(), task);
+    }
+
+    public static BatchOperation delete(Target target, long id) {
+        return new BatchOperation(Action.DELETE, target, id, null);
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public Target getTarget() {
+        return target;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    private static Target targetOf(Task task) {
+        if (task instanceof EpicTask) {
+            return Target.EPIC;
+        } else if (task instanceof SubTask) {
+            return Target.SUBTASK;
+        } else {
+            return Target.TASK;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package managers;
+
+// Итог одной операции пакета: операции применяются независимо, ошибка одной не отменяет остальные
+public class BatchResult {
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        NOT_FOUND,
+        CONFLICT
+    }
+
+    private final Status status;
+    private final long id;
+    private final String message;
+
+    public BatchResult(Status status, long id, String message) {
+        this.status = status;
+        this.id = id;
+        this.message = message;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,204 @@
+package managers;
+
+import exceptions.ManagerLoadException;
+import models.EpicTask;
+import models.StatusEnum;
+import models.SubTask;
+import models.Task;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+
+// Формат: MAGIC, версия, затем записи
+// [длина][тип][id][статус][epicId][начало, секунды][начало, наносекунды][длительность][имя][описание].
+// Версия 1 хранила начало без наносекунд, такие снимки по-прежнему читаются
+class BinarySnapshot {
+    static final byte[] MAGIC = {'K', 'N', 'B', 'S'};
+    static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_NANOS = 1;
+
+    private static final byte TYPE_TASK = 0;
+    private static final byte TYPE_EPIC = 1;
+    private static final byte TYPE_SUBTASK = 2;
+    private static final long NO_VALUE = Long.MIN_VALUE;
+    private static final long MAX_WINDOW = 1L << 30;
+    private static final StatusEnum[] STATUSES = StatusEnum.values();
+
+    private BinarySnapshot() {
+    }
+
+    static boolean isBinary(Path file) throws IOException {
+        if (Files.size(file) < MAGIC.length) return false;
+
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] header = in.readNBytes(MAGIC.length);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (header[i] != MAGIC[i]) return false;
+            }
+            return true;
+        }
+    }
+
+    static void write(Path target, Iterable<? extends Task> tasks, boolean force) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            for (Task task : tasks) {
+                writeRecord(out, task);
+            }
+            out.flush();
+            if (force) {
+                channel.force(true);
+            }
+        }
+    }
+
+    static void read(Path file, Consumer<Task> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = MAGIC.length;
+            MappedByteBuffer buffer = map(channel, position, size);
+
+            int version = buffer.getInt();
+            if (version != VERSION && version != VERSION_WITHOUT_NANOS) {
+                throw new ManagerLoadException("Неподдерживаемая версия снимка: " + version, null);
+            }
+            position += Integer.BYTES;
+
+            while (position < size) {
+                if (buffer.remaining() < Integer.BYTES) {
+                    buffer = map(channel, position, size);
+                }
+                int length = buffer.getInt(buffer.position());
+                if (buffer.remaining() < Integer.BYTES + length) {
+                    buffer = map(channel, position, size);
+                }
+                buffer.getInt();
+                consumer.accept(readRecord(buffer, version));
+                position += Integer.BYTES + length;
+            }
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_WINDOW, size - position));
+    }
+
+    private static void writeRecord(DataOutputStream out, Task task) throws IOException {
+        byte[] name = encode(task.getName());
+        byte[] description = encode(task.getDescription());
+        int length = 1 + Long.BYTES + 1 + Long.BYTES * 3 + Integer.BYTES * 3
+                + lengthOf(name) + lengthOf(description);
+
+        out.writeInt(length);
+        out.writeByte(typeOf(task));
+        out.writeLong(task.getId());
+        out.writeByte(task.getStatus().ordinal());
+        out.writeLong(task instanceof SubTask ? ((SubTask) task).getEpicId() : NO_VALUE);
+        if (task instanceof EpicTask) {
+            out.writeLong(NO_VALUE);
+            out.writeInt(0);
+            out.writeLong(NO_VALUE);
+        } else {
+            LocalDateTime startTime = task.getStartTime();
+            Duration duration = task.getDuration();
+            out.writeLong(startTime != null ? startTime.toEpochSecond(ZoneOffset.UTC) : NO_VALUE);
+            out.writeInt(startTime != null ? startTime.getNano() : 0);
+            out.writeLong(duration != null ? duration.toMinutes() : NO_VALUE);
+        }
+        writeString(out, name);
+        writeString(out, description);
+    }
+
+    private static Task readRecord(ByteBuffer buffer, int version) {
+        byte type = buffer.get();
+        long id = buffer.getLong();
+        StatusEnum status = STATUSES[buffer.get()];
+        long epicId = buffer.getLong();
+        long start = buffer.getLong();
+        int nanos = version == VERSION_WITHOUT_NANOS ? 0 : buffer.getInt();
+        long minutes = buffer.getLong();
+        String name = readString(buffer);
+        String description = readString(buffer);
+
+        LocalDateTime startTime = start != NO_VALUE ? LocalDateTime.ofEpochSecond(start, nanos, ZoneOffset.UTC) : null;
+        Duration duration = minutes != NO_VALUE ? Duration.ofMinutes(minutes) : null;
+
+        Task task;
+        switch (type) {
+            case TYPE_TASK:
+                task = new Task(name, description, status, startTime, duration);
+                break;
+            case TYPE_EPIC:
+                task = new EpicTask(name, description, status);
+                break;
+            case TYPE_SUBTASK:
+                task = new SubTask(name, description, status, startTime, duration, epicId);
+                break;
+            default:
+                throw new ManagerLoadException("Неизвестный тип записи в снимке: " + type, null);
+        }
+        task.setId(id);
+        return task;
+    }
+
+    private static byte typeOf(Task task) {
+        if (task instanceof EpicTask) {
+            return TYPE_EPIC;
+        } else if (task instanceof SubTask) {
+            return TYPE_SUBTASK;
+        } else {
+            return TYPE_TASK;
+        }
+    }
+
+    private static byte[] encode(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int lengthOf(byte[] value) {
+        return value != null ? value.length : 0;
+    }
+
+    private static void writeString(DataOutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(buffer.position(), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,38 @@
+package managers;
+
+import java.time.Duration;
+
+public class CompactionPolicy {
+    public static final CompactionPolicy DEFAULT =
+            new CompactionPolicy(16L * 1024 * 1024, 100_000, Duration.ofHours(1));
+
+    private final long maxJournalBytes;
+    private final long maxJournalRecords;
+    private final Duration maxJournalAge;
+
+    public CompactionPolicy(long maxJournalBytes, long maxJournalRecords, Duration maxJournalAge) {
+        this.maxJournalBytes = maxJournalBytes;
+        this.maxJournalRecords = maxJournalRecords;
+        this.maxJournalAge = maxJournalAge;
+    }
+
+    public long getMaxJournalBytes() {
+        return maxJournalBytes;
+    }
+
+    public long getMaxJournalRecords() {
+        return maxJournalRecords;
+    }
+
+    public Duration getMaxJournalAge() {
+        return maxJournalAge;
+    }
+
+    boolean isExceeded(long bytes, long records, Duration age) {
+        if (records == 0) return false;
+
+        return bytes >= maxJournalBytes
+                || records >= maxJournalRecords
+                || age.compareTo(maxJournalAge) >= 0;
+    }
+}
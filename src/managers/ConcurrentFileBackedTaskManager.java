@@ -0,0 +1,31 @@
+package managers;
+
+import models.SubTask;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Файловый менеджер для многопоточного сервера. Запись и так идет под блокировкой менеджера,
+// здесь потокобезопасными становятся чтение по id и история, как в ConcurrentTaskManager
+public class ConcurrentFileBackedTaskManager extends FileBackedTaskManager {
+
+    public ConcurrentFileBackedTaskManager(Path file, PersistenceMode mode) {
+        this(file, mode, SnapshotFormat.CSV, CompactionPolicy.DEFAULT, DurabilityPolicy.DEFAULT);
+    }
+
+    public ConcurrentFileBackedTaskManager(Path file, PersistenceMode mode, SnapshotFormat format,
+                                           CompactionPolicy policy, DurabilityPolicy durability) {
+        super(file, mode, format, policy, durability,
+                new ConcurrentLongHashMap<>(), new ConcurrentLongHashMap<>(), new ConcurrentLongHashMap<>(),
+                new ConcurrentSkipListSet<>(PRIORITY_ORDER),
+                new TimeIntervalIndex(new ConcurrentSkipListSet<>(TimeIntervalIndex.ORDER)),
+                Managers.getConcurrentHistory());
+    }
+
+    // Живой список эпика меняется писателем, читателю отдается список из среза
+    @Override
+    public List<SubTask> getSubTasks(long idEpicTask) {
+        return copies(snapshot().getSubTasks(idEpicTask));
+    }
+}
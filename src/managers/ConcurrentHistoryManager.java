@@ -0,0 +1,267 @@
+package managers;
+
+import models.Task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+// История для многопоточного сервера. Поиск по id идет через конкурентную карту без общей блокировки,
+// а просмотры и удаления складываются в полосатые кольцевые буферы. Список по давности просмотра
+// меняет только тот, кто захватил evictionLock: он разбирает буферы пачкой, обычно через tryLock.
+// Каждое событие получает номер, и пачка применяется в порядке номеров, поэтому для одного потока
+// порядок истории такой же, как у InMemoryHistoryManager
+public class ConcurrentHistoryManager implements HistoryManager {
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private static final int BUFFER_SIZE = 32;
+    private static final int DRAIN_THRESHOLD = BUFFER_SIZE / 2;
+
+    private final int capacity;
+    private final ConcurrentLongHashMap<Node> nodes = new ConcurrentLongHashMap<>();
+    private final EventBuffer[] buffers;
+    private final AtomicLong tickets = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    // Доступ к списку только под evictionLock
+    private Node head;
+    private Node tail;
+    private int linked;
+
+    public ConcurrentHistoryManager() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ConcurrentHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Вместимость истории должна быть положительной: " + capacity);
+        }
+        this.capacity = capacity;
+        int stripes = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4));
+        buffers = new EventBuffer[stripes];
+        for (int i = 0; i < stripes; i++) {
+            buffers[i] = new EventBuffer();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public List<Task> getTasksHistory() {
+        evictionLock.lock();
+        try {
+            drainBuffers();
+            List<Task> result = new ArrayList<>(linked);
+            for (Node node = head; node != null; node = node.next) {
+                result.add(node.task);
+            }
+            return result;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getTasksHistory(int limit, Long after) {
+        evictionLock.lock();
+        try {
+            drainBuffers();
+            Node current = tail;
+            if (after != null) {
+                Node node = nodes.get(after);
+                current = node != null && node.linked ? node.prev : null;
+            }
+            List<Task> page = new ArrayList<>(Math.min(limit, linked));
+            while (current != null && page.size() < limit) {
+                page.add(current.task);
+                current = current.prev;
+            }
+            return page;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void addTaskHistory(Task task) {
+        if (task == null) return;
+
+        long id = task.getId();
+        while (true) {
+            Node node = nodes.get(id);
+            if (node == null) {
+                Node created = new Node(id, task);
+                node = nodes.putIfAbsent(id, created);
+                if (node == null) {
+                    record(new Event(created, false, tickets.incrementAndGet()));
+                    return;
+                }
+            }
+            node.task = task;
+            if (!node.removed) {
+                record(new Event(node, false, tickets.incrementAndGet()));
+                return;
+            }
+            // Узел удалили параллельно — повторяем с новым
+            nodes.remove(id, node);
+        }
+    }
+
+    @Override
+    public void removeTaskHistory(Long id) {
+        Node node = nodes.remove(id);
+        if (node != null) {
+            node.removed = true;
+            record(new Event(node, true, tickets.incrementAndGet()));
+        }
+    }
+
+    private void record(Event event) {
+        EventBuffer buffer = buffers[(int) Thread.currentThread().threadId() & (buffers.length - 1)];
+        while (!buffer.offer(event)) {
+            // Буфер полон: события не теряются, поток сам разбирает буферы под блокировкой
+            evictionLock.lock();
+            try {
+                drainBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        if (event.removal || buffer.pending() >= DRAIN_THRESHOLD) {
+            tryDrain();
+        }
+    }
+
+    private void tryDrain() {
+        if (evictionLock.tryLock()) {
+            try {
+                drainBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainBuffers() {
+        List<Event> events = new ArrayList<>();
+        for (EventBuffer buffer : buffers) {
+            buffer.drainTo(events);
+        }
+        events.sort(Comparator.comparingLong(Event::ticket));
+        for (Event event : events) {
+            Node node = event.node();
+            if (event.removal()) {
+                unlink(node);
+            } else if (!node.removed && (node.linked || isCurrent(node))) {
+                unlink(node);
+                linkLast(node);
+            }
+        }
+        while (linked > capacity) {
+            Node eldest = head;
+            unlink(eldest);
+            nodes.remove(eldest.id, eldest);
+        }
+    }
+
+    // Узел, вытесненный по вместимости, возвращается в карту, если его успели просмотреть снова
+    private boolean isCurrent(Node node) {
+        Node current = nodes.putIfAbsent(node.id, node);
+        return current == null || current == node;
+    }
+
+    private void linkLast(Node node) {
+        node.prev = tail;
+        node.next = null;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+        node.linked = true;
+        linked++;
+    }
+
+    private void unlink(Node node) {
+        if (!node.linked) return;
+
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.linked = false;
+        linked--;
+    }
+
+    private static class Node {
+        final long id;
+        volatile Task task;
+        volatile boolean removed;
+        Node prev;
+        Node next;
+        boolean linked;
+
+        Node(long id, Task task) {
+            this.id = id;
+            this.task = task;
+        }
+    }
+
+    private record Event(Node node, boolean removal, long ticket) {
+    }
+
+    // Кольцевой буфер: много писателей, один читатель под evictionLock
+    private static class EventBuffer {
+        private final AtomicReferenceArray<Event> slots = new AtomicReferenceArray<>(BUFFER_SIZE);
+        private final AtomicLong writes = new AtomicLong();
+        private volatile long reads;
+
+        boolean offer(Event event) {
+            while (true) {
+                long position = writes.get();
+                if (position - reads >= BUFFER_SIZE) {
+                    return false;
+                }
+                if (writes.compareAndSet(position, position + 1)) {
+                    slots.lazySet((int) position & (BUFFER_SIZE - 1), event);
+                    return true;
+                }
+            }
+        }
+
+        long pending() {
+            return writes.get() - reads;
+        }
+
+        void drainTo(List<Event> sink) {
+            long position = reads;
+            long end = writes.get();
+            while (position < end) {
+                int index = (int) position & (BUFFER_SIZE - 1);
+                Event event = slots.get(index);
+                if (event == null) {
+                    // Писатель занял ячейку, но еще не записал событие — заберем в следующий раз
+                    break;
+                }
+                slots.lazySet(index, null);
+                sink.add(event);
+                position++;
+            }
+            reads = position;
+        }
+    }
+}
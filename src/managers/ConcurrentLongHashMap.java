@@ -0,0 +1,168 @@
+package managers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+// Набор сегментов LongHashMap. Запись берет блокировку своего сегмента,
+// чтение идет оптимистично и повторяется под блокировкой только если сегмент менялся
+public class ConcurrentLongHashMap<V> implements LongMap<V> {
+    private static final int SEGMENTS = 16;
+
+    private final Segment<V>[] segments;
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongHashMap() {
+        segments = (Segment<V>[]) new Segment<?>[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(new LongHashMap<>());
+        }
+    }
+
+    @Override
+    public V get(long key) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                V value = segment.map.get(key);
+                if (segment.lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                // Таблица менялась во время чтения, повторяем под блокировкой
+            }
+        }
+        stamp = segment.lock.readLock();
+        try {
+            return segment.map.get(key);
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public V put(long key, V value) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.map.put(key, value);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    public V putIfAbsent(long key, V value) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            V existing = segment.map.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            segment.map.put(key, value);
+            return null;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    // Удаляет запись, только если ключ все еще указывает на expected
+    public boolean remove(long key, V expected) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            if (segment.map.get(key) != expected) {
+                return false;
+            }
+            segment.map.remove(key);
+            return true;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public V remove(long key) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.map.remove(key);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                size += segment.map.size();
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                segment.map.clear();
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    @Override
+    public List<V> values() {
+        List<V> result = new ArrayList<>();
+        forEachValue(result::add);
+        return result;
+    }
+
+    // Как и у ConcurrentHashMap, обход не дает единого среза по всем сегментам
+    @Override
+    public void forEachValue(Consumer<? super V> action) {
+        for (Segment<V> segment : segments) {
+            List<V> values;
+            long stamp = segment.lock.readLock();
+            try {
+                values = segment.map.values();
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+            values.forEach(action);
+        }
+    }
+
+    private Segment<V> segmentFor(long key) {
+        long h = key * 0xC2B2AE3D27D4EB4FL;
+        return segments[(int) (h >>> 60) & (SEGMENTS - 1)];
+    }
+
+    private static class Segment<V> {
+        final StampedLock lock = new StampedLock();
+        final LongHashMap<V> map;
+
+        Segment(LongHashMap<V> map) {
+            this.map = map;
+        }
+    }
+}
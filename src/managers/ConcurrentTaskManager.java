@@ -0,0 +1,201 @@
+package managers;
+
+import models.EpicTask;
+import models.SubTask;
+import models.Task;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Чтение идет без блокировок по конкурентным коллекциям.
+// Изменения одной задачи, эпика и его подзадач сериализуются блокировкой полосы по id задачи или эпика.
+// Общая блокировка расписания берется, только когда меняется время: проверка пересечения и вставка
+// в индекс должны идти вместе. Массовые удаления и транзакции исключают все остальные изменения
+// через блокировку на запись bulkLock, одиночные изменения держат ее на чтение
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+    private static final int LOCK_STRIPES = 64;
+
+    private final ReentrantReadWriteLock bulkLock = new ReentrantReadWriteLock();
+    private final ReentrantLock scheduleLock = new ReentrantLock();
+    private final ReentrantLock[] stripeLocks = new ReentrantLock[LOCK_STRIPES];
+
+    public ConcurrentTaskManager() {
+        this(Managers.getConcurrentHistory());
+    }
+
+    protected ConcurrentTaskManager(HistoryManager historyManager) {
+        super(new ConcurrentLongHashMap<>(), new ConcurrentLongHashMap<>(), new ConcurrentLongHashMap<>(),
+                new ConcurrentSkipListSet<>(PRIORITY_ORDER),
+                new TimeIntervalIndex(new ConcurrentSkipListSet<>(TimeIntervalIndex.ORDER)),
+                historyManager);
+        for (int i = 0; i < stripeLocks.length; i++) {
+            stripeLocks[i] = new ReentrantLock();
+        }
+    }
+
+    // Новая задача никому не видна до вставки, поэтому полоса ей не нужна
+    @Override
+    public void addTask(Task task) {
+        withSharedLock(() -> withScheduleLockIf(task.getStartTime() != null, () -> super.addTask(task)));
+    }
+
+    @Override
+    public void updateTask(Task updateTask) {
+        withSharedLock(() -> withStripeLock(updateTask.getId(), () -> {
+            Task task = taskMap.get(updateTask.getId());
+            boolean timeChanged = task != null && isTimeChanged(task, updateTask);
+            withScheduleLockIf(timeChanged, () -> super.updateTask(updateTask));
+        }));
+    }
+
+    // Удаление из индекса времени только освобождает интервал и обходится без блокировки расписания
+    @Override
+    public void removeTask(long deleteTask) {
+        withSharedLock(() -> withStripeLock(deleteTask, () -> super.removeTask(deleteTask)));
+    }
+
+    @Override
+    public void deleteTask() {
+        withExclusiveLock(super::deleteTask);
+    }
+
+    @Override
+    public void updateEpicTask(EpicTask updateEpicTask) {
+        withSharedLock(() -> withStripeLock(updateEpicTask.getId(), () -> super.updateEpicTask(updateEpicTask)));
+    }
+
+    @Override
+    public void removeEpicTask(long deleteEpicTask) {
+        withSharedLock(() -> withStripeLock(deleteEpicTask, () -> super.removeEpicTask(deleteEpicTask)));
+    }
+
+    @Override
+    public void deleteEpicTask() {
+        withExclusiveLock(super::deleteEpicTask);
+    }
+
+    @Override
+    public void addSubTask(SubTask subTask) {
+        withSharedLock(() -> withStripeLock(subTask.getEpicId(),
+                () -> withScheduleLockIf(subTask.getStartTime() != null, () -> super.addSubTask(subTask))));
+    }
+
+    @Override
+    public void updateSubTask(SubTask updateSubTask) {
+        SubTask subTask = subTaskMap.get(updateSubTask.getId());
+        if (subTask == null) return;
+
+        withSharedLock(() -> withSubTaskLocks(updateSubTask.getId(), updateSubTask.getEpicId(), () -> {
+            SubTask current = subTaskMap.get(updateSubTask.getId());
+            boolean timeChanged = current != null && isTimeChanged(current, updateSubTask);
+            withScheduleLockIf(timeChanged, () -> super.updateSubTask(updateSubTask));
+        }));
+    }
+
+    @Override
+    public void removeSubTask(long deleteSubTask) {
+        SubTask subTask = subTaskMap.get(deleteSubTask);
+        if (subTask == null) {
+            super.removeSubTask(deleteSubTask);
+            return;
+        }
+
+        withSharedLock(() -> withSubTaskLocks(deleteSubTask, subTask.getEpicId(),
+                () -> super.removeSubTask(deleteSubTask)));
+    }
+
+    @Override
+    public void deleteSubTask() {
+        withExclusiveLock(super::deleteSubTask);
+    }
+
+    // Проверка и применение транзакции идут при исключительной блокировке
+    @Override
+    public List<BatchResult> commitTransaction(List<BatchOperation> operations) {
+        bulkLock.writeLock().lock();
+        try {
+            return super.commitTransaction(operations);
+        } finally {
+            bulkLock.writeLock().unlock();
+        }
+    }
+
+    // Список подзадач эпика берется из среза: живой список эпика меняется под блокировкой полосы
+    @Override
+    public List<SubTask> getSubTasks(long idEpicTask) {
+        return copies(snapshot().getSubTasks(idEpicTask));
+    }
+
+    private static int stripe(long id) {
+        return Long.hashCode(id) & (LOCK_STRIPES - 1);
+    }
+
+    private void withStripeLock(long id, Runnable action) {
+        ReentrantLock lock = stripeLocks[stripe(id)];
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Эпик подзадачи читается до блокировки и может успеть смениться, поэтому после захвата полос
+    // он сверяется еще раз. targetEpicId — эпик, куда подзадача переносится; полосы берутся
+    // по возрастанию номера, чтобы два переноса навстречу друг другу не заблокировали друг друга
+    private void withSubTaskLocks(long subTaskId, long targetEpicId, Runnable action) {
+        while (true) {
+            SubTask subTask = subTaskMap.get(subTaskId);
+            long epicId = subTask != null ? subTask.getEpicId() : targetEpicId;
+            int a = stripe(epicId);
+            int b = stripe(targetEpicId);
+            ReentrantLock first = stripeLocks[Math.min(a, b)];
+            ReentrantLock second = stripeLocks[Math.max(a, b)];
+            first.lock();
+            second.lock();
+            try {
+                SubTask current = subTaskMap.get(subTaskId);
+                if (current == null || current.getEpicId() == epicId) {
+                    action.run();
+                    return;
+                }
+            } finally {
+                second.unlock();
+                first.unlock();
+            }
+        }
+    }
+
+    private void withSharedLock(Runnable action) {
+        bulkLock.readLock().lock();
+        try {
+            action.run();
+        } finally {
+            bulkLock.readLock().unlock();
+        }
+    }
+
+    private void withExclusiveLock(Runnable action) {
+        bulkLock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            bulkLock.writeLock().unlock();
+        }
+    }
+
+    private void withScheduleLockIf(boolean timeChanged, Runnable action) {
+        if (!timeChanged) {
+            action.run();
+            return;
+        }
+        scheduleLock.lock();
+        try {
+            action.run();
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+}
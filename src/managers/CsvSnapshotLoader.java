@@ -0,0 +1,151 @@
+package managers;
+
+import models.SubTask;
+import models.Task;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Файл режется на куски по границам строк, куски разбираются параллельно,
+// а подзадачи связываются с эпиками вторым проходом — порядок строк в файле не важен
+class CsvSnapshotLoader {
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final int MAX_CHUNK_SIZE = 64 << 20;
+    private static final int BOUNDARY_PROBE_SIZE = 8192;
+
+    private CsvSnapshotLoader() {
+    }
+
+    static void load(Path file, Function<String, Task> parser, Consumer<Task> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = splitIntoChunks(channel);
+            List<Task> tasks;
+            try {
+                tasks = ForkJoinPool.commonPool().invoke(new ChunkTask(channel, bounds, 0, bounds.length - 1, parser));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            List<SubTask> subTasks = new ArrayList<>();
+            for (Task task : tasks) {
+                if (task instanceof SubTask) {
+                    subTasks.add((SubTask) task);
+                } else {
+                    consumer.accept(task);
+                }
+            }
+            for (SubTask subTask : subTasks) {
+                consumer.accept(subTask);
+            }
+        }
+    }
+
+    private static long[] splitIntoChunks(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long start = nextLineStart(channel, 0, size);
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, (size - start) / (parallelism * 4L) + 1));
+
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(start);
+        long position = start;
+        while (position < size) {
+            position = position + chunkSize >= size ? size : nextLineStart(channel, position + chunkSize, size);
+            bounds.add(position);
+        }
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(BOUNDARY_PROBE_SIZE);
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    // RecursiveTask сериализуем только формально: задача живет внутри одного invoke и не сериализуется
+    @SuppressWarnings("serial")
+    private static class ChunkTask extends RecursiveTask<List<Task>> {
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+        private final Function<String, Task> parser;
+
+        ChunkTask(FileChannel channel, long[] bounds, int from, int to, Function<String, Task> parser) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+            this.parser = parser;
+        }
+
+        @Override
+        protected List<Task> compute() {
+            if (to - from <= 1) {
+                return from < to ? parseChunk(bounds[from], bounds[to]) : new ArrayList<>();
+            }
+
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(channel, bounds, from, middle, parser);
+            left.fork();
+            List<Task> right = new ChunkTask(channel, bounds, middle, to, parser).compute();
+            List<Task> result = left.join();
+            result.addAll(right);
+            return result;
+        }
+
+        private List<Task> parseChunk(long start, long end) {
+            byte[] bytes = new byte[(int) (end - start)];
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            try {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, start + buffer.position()) < 0) break;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            List<Task> tasks = new ArrayList<>();
+            int lineStart = 0;
+            for (int i = 0; i <= bytes.length; i++) {
+                if (i == bytes.length || bytes[i] == '\n') {
+                    int lineEnd = i > lineStart && bytes[i - 1] == '\r' ? i - 1 : i;
+                    if (lineEnd > lineStart) {
+                        Task task = parser.apply(new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8));
+                        if (task != null) {
+                            tasks.add(task);
+                        }
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            return tasks;
+        }
+    }
+}
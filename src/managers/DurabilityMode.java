@@ -0,0 +1,7 @@
+package managers;
+
+public enum DurabilityMode {
+    FSYNC_BATCH,
+    FSYNC_INTERVAL,
+    OS_BUFFERED
+}
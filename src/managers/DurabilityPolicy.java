@@ -0,0 +1,24 @@
+package managers;
+
+import java.time.Duration;
+
+public class DurabilityPolicy {
+    public static final DurabilityPolicy DEFAULT =
+            new DurabilityPolicy(DurabilityMode.FSYNC_BATCH, Duration.ZERO);
+
+    private final DurabilityMode mode;
+    private final Duration fsyncInterval;
+
+    public DurabilityPolicy(DurabilityMode mode, Duration fsyncInterval) {
+        this.mode = mode;
+        this.fsyncInterval = fsyncInterval;
+    }
+
+    public DurabilityMode getMode() {
+        return mode;
+    }
+
+    public Duration getFsyncInterval() {
+        return fsyncInterval;
+    }
+}
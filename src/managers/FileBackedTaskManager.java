@@ -8,126 +8,568 @@ import models.SubTask;
 import models.Task;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Supplier;
 
 public class FileBackedTaskManager extends InMemoryTaskManager {
+    private static final String CSV_HEADER = "id,type,name,status,description,epic";
+    private static final int PAGE_SIZE = 1024;
+    // Разделитель записей внутри записи транзакции. Имя или описание задачи может его содержать,
+    // поэтому внутри записи он и символ экранирования заменяются парами TX_ESCAPE + буква
+    private static final String TX_SEPARATOR = "\u001e";
+    private static final char TX_ESCAPE = '\u001b';
+
     private final Path file;
+    private final PersistenceMode mode;
+    private final SnapshotFormat format;
+    private final TaskJournal journal;
+    private final TaskJournal compactingJournal;
+    private final SnapshotCompactor compactor;
+    private final PagedTaskStore pages;
+    // Записи журнала текущего пакета или транзакции; null вне applyBatch и commitTransaction
+    private List<String> batchRecords;
 
     public FileBackedTaskManager(Path file) {
+        this(file, PersistenceMode.SNAPSHOT);
+    }
+
+    public FileBackedTaskManager(Path file, PersistenceMode mode) {
+        this(file, mode, CompactionPolicy.DEFAULT);
+    }
+
+    public FileBackedTaskManager(Path file, PersistenceMode mode, SnapshotFormat format) {
+        this(file, mode, format, CompactionPolicy.DEFAULT, DurabilityPolicy.DEFAULT);
+    }
+
+    public FileBackedTaskManager(Path file, PersistenceMode mode, CompactionPolicy policy) {
+        this(file, mode, policy, DurabilityPolicy.DEFAULT);
+    }
+
+    public FileBackedTaskManager(Path file, PersistenceMode mode, CompactionPolicy policy,
+                                 DurabilityPolicy durability) {
+        this(file, mode, SnapshotFormat.CSV, policy, durability);
+    }
+
+    public FileBackedTaskManager(Path file, PersistenceMode mode, SnapshotFormat format,
+                                 CompactionPolicy policy, DurabilityPolicy durability) {
+        this(file, mode, format, policy, durability, new LongHashMap<>(), new LongHashMap<>(),
+                new LongHashMap<>(), new TreeSet<>(PRIORITY_ORDER),
+                new TimeIntervalIndex(new TreeSet<>(TimeIntervalIndex.ORDER)), Managers.getDefaultHistory());
+    }
+
+    // Коллекции задаются наследником, как в InMemoryTaskManager: так ConcurrentFileBackedTaskManager
+    // получает потокобезопасное чтение при той же записи под блокировкой менеджера
+    protected FileBackedTaskManager(Path file, PersistenceMode mode, SnapshotFormat format,
+                                    CompactionPolicy policy, DurabilityPolicy durability,
+                                    LongMap<Task> taskMap, LongMap<EpicTask> taskEpicMap,
+                                    LongMap<SubTask> subTaskMap, NavigableSet<Task> prioritizedTasks,
+                                    TimeIntervalIndex timeIndex, HistoryManager historyManager) {
+        super(taskMap, taskEpicMap, subTaskMap, prioritizedTasks, timeIndex, historyManager);
         this.file = file;
+        this.mode = mode;
+        this.format = format;
+        this.journal = new TaskJournal(file.resolveSibling(file.getFileName() + ".journal"), durability);
+        this.compactingJournal = new TaskJournal(file.resolveSibling(file.getFileName() + ".journal.compacting"));
+        this.pages = mode == PersistenceMode.PAGED
+                ? new PagedTaskStore(file.resolveSibling(file.getFileName() + ".pages"), PAGE_SIZE) : null;
         try {
             if (file.toFile().exists()) {
                 this.loadFromFile(file);
+                if (mode == PersistenceMode.JOURNAL) {
+                    compactingJournal.replay(this::applyRecord);
+                    journal.replay(this::applyRecord);
+                } else if (mode == PersistenceMode.PAGED) {
+                    loadPages();
+                }
+                publishAll();
             } else {
                 throw new ManagerLoadException("Файл не существует: " + file, null);
             }
         } catch (Exception e) {
             throw new ManagerLoadException("Ошибка при загрузке из файла", e);
         }
+        this.compactor = mode == PersistenceMode.JOURNAL
+                ? new SnapshotCompactor(policy, journal, this::compactJournal) : null;
     }
 
     @Override
     public void addTask(Task task) {
-        super.addTask(task);
-        saveToFile();
+        persist(() -> super.addTask(task), () -> putRecord(task));
     }
 
     @Override
     public void addEpicTask(EpicTask epic) {
-        super.addEpicTask(epic);
-        saveToFile();
-
+        persist(() -> super.addEpicTask(epic), () -> putRecord(epic));
     }
 
     @Override
     public void addSubTask(SubTask subtask) {
-        super.addSubTask(subtask);
-        saveToFile();
+        persist(() -> super.addSubTask(subtask), () -> putRecord(subtask));
     }
 
     @Override
     public void updateTask(Task task) {
-        super.updateTask(task);
-        saveToFile();
+        persist(() -> super.updateTask(task), () -> putRecord(taskMap.get(task.getId())));
     }
 
     @Override
     public void updateEpicTask(EpicTask epic) {
-        super.updateEpicTask(epic);
-        saveToFile();
+        persist(() -> super.updateEpicTask(epic), () -> putRecord(taskEpicMap.get(epic.getId())));
     }
 
     @Override
     public void updateSubTask(SubTask subtask) {
-        super.updateSubTask(subtask);
-        saveToFile();
+        persist(() -> super.updateSubTask(subtask), () -> putRecord(subTaskMap.get(subtask.getId())));
     }
 
     @Override
     public void removeTask(long id) {
-        super.removeTask(id);
-        saveToFile();
+        persist(() -> super.removeTask(id), () -> "DEL,Task," + id);
     }
 
     @Override
     public void removeEpicTask(long id) {
-        super.removeEpicTask(id);
-        saveToFile();
+        persist(() -> super.removeEpicTask(id), () -> "DEL,EpicTask," + id);
     }
 
     @Override
     public void removeSubTask(long id) {
-        super.removeSubTask(id);
-        saveToFile();
+        persist(() -> super.removeSubTask(id), () -> "DEL,SubTask," + id);
     }
 
     @Override
     public void deleteTask() {
-        super.deleteTask();
-        saveToFile();
+        persist(super::deleteTask, () -> "CLEAR,Task");
     }
 
     @Override
     public void deleteEpicTask() {
-        super.deleteEpicTask();
-        saveToFile();
+        persist(super::deleteEpicTask, () -> "CLEAR,EpicTask");
     }
 
     @Override
     public void deleteSubTask() {
-        super.deleteSubTask();
-        saveToFile();
+        persist(super::deleteSubTask, () -> "CLEAR,SubTask");
     }
 
-    protected void saveToFile() {
-        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+    // Весь пакет применяется под одной блокировкой, а на диск уходит один раз: один снимок,
+    // одна выгрузка страниц или одна пачка записей журнала с одним ожиданием fsync
+    @Override
+    public List<BatchResult> applyBatch(List<BatchOperation> operations) {
+        List<BatchResult> results;
+        long sequence;
+        synchronized (this) {
+            batchRecords = new ArrayList<>(operations.size());
+            try {
+                results = super.applyBatch(operations);
+            } finally {
+                List<String> records = batchRecords;
+                batchRecords = null;
+                sequence = flush(records);
+            }
+        }
+        awaitDurable(sequence);
+        return results;
+    }
 
-            writer.write("id,type,name,status,description,epic");
-            writer.newLine();
+    // Транзакция уходит в журнал одной строкой: при падении посреди записи неполная строка
+    // отбрасывается при восстановлении целиком. Откатившаяся транзакция на диск не пишется вовсе
+    @Override
+    public List<BatchResult> commitTransaction(List<BatchOperation> operations) {
+        List<BatchResult> results;
+        long sequence;
+        synchronized (this) {
+            batchRecords = new ArrayList<>(operations.size());
+            try {
+                results = super.commitTransaction(operations);
+            } catch (RuntimeException e) {
+                batchRecords = null;
+                throw e;
+            }
+            List<String> records = batchRecords;
+            batchRecords = null;
+            sequence = flush(records.isEmpty() ? records : List.of(transactionRecord(records)));
+        }
+        awaitDurable(sequence);
+        return results;
+    }
 
-            for (Task task : getTasks()) {
-                writer.write(taskToCsvString(task));
-                writer.newLine();
+    public void compact() {
+        if (mode == PersistenceMode.JOURNAL) {
+            compactor.runNow();
+        } else if (mode == PersistenceMode.PAGED) {
+            synchronized (this) {
+                flushPages();
             }
+        } else {
+            saveToFile();
+        }
+    }
 
-            for (EpicTask epic : getEpicTasks()) {
-                writer.write(taskToCsvString(epic));
-                writer.newLine();
+    public void exportTo(Path target, SnapshotFormat targetFormat) {
+        List<Task> tasks = allTasks(snapshot());
+        try {
+            if (targetFormat == SnapshotFormat.BINARY) {
+                BinarySnapshot.write(target, tasks, true);
+            } else {
+                writeCsv(target, tasks, true);
             }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при экспорте в файл", e);
+        }
+    }
 
-            for (SubTask subtask : getSubTasks()) {
-                writer.write(taskToCsvString(subtask));
-                writer.newLine();
+    public Duration getLastCompactionDuration() {
+        return compactor != null ? compactor.getLastDuration() : Duration.ZERO;
+    }
+
+    public long getCompactionCount() {
+        return compactor != null ? compactor.getCompactions() : 0;
+    }
+
+    // Ошибка последнего фонового сжатия или null, если оно прошло успешно
+    public RuntimeException getCompactionFailure() {
+        return compactor != null ? compactor.getFailure() : null;
+    }
+
+    public void close() {
+        try {
+            if (compactor != null) {
+                compactor.close();
             }
+        } finally {
+            try {
+                synchronized (this) {
+                    journal.close();
+                }
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка при закрытии журнала", e);
+            }
+        }
+    }
+
+    private void compactJournal() {
+        TaskSnapshot state;
+        try {
+            synchronized (this) {
+                state = snapshot();
+                journal.rotate(compactingJournal.getPath());
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при переключении журнала", e);
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            writeSnapshot(tmp, allTasks(state), true);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            compactingJournal.truncate();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при сжатии журнала", e);
+        }
+    }
+
+    // Под блокировкой берется только срез, сами задачи из него читаются уже без нее
+    private static List<Task> allTasks(TaskSnapshot state) {
+        List<Task> tasks = new ArrayList<>(state.size());
+        state.forEachTask(tasks::add);
+        state.forEachEpicTask(tasks::add);
+        state.forEachSubTask(tasks::add);
+        return tasks;
+    }
+
+    // Изменение и постановка записи в журнал идут под блокировкой, а ожидание fsync — уже без неё,
+    // чтобы записи нескольких потоков попадали в одну пачку
+    private void persist(Runnable change, Supplier<String> record) {
+        long sequence;
+        synchronized (this) {
+            change.run();
+            String value = mode == PersistenceMode.JOURNAL ? record.get() : null;
+            if (batchRecords != null) {
+                if (value != null) {
+                    batchRecords.add(value);
+                }
+                return;
+            }
+            sequence = flush(value == null ? List.of() : List.of(value));
+        }
+        awaitDurable(sequence);
+    }
+
+    // Возвращает номер последней записи журнала, которую нужно дождаться, или 0, если ждать нечего
+    private long flush(List<String> records) {
+        if (mode == PersistenceMode.SNAPSHOT) {
+            saveToFile();
+            return 0;
+        }
+        if (mode == PersistenceMode.PAGED) {
+            flushPages();
+            return 0;
+        }
+
+        long sequence = 0;
+        try {
+            for (String record : records) {
+                sequence = journal.append(record);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в журнал", e);
+        }
+        if (sequence != 0) {
+            compactor.maybeCompact();
+        }
+        return sequence;
+    }
+
+    private void awaitDurable(long sequence) {
+        if (sequence == 0) return;
+
+        try {
+            journal.awaitDurable(sequence);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в журнал", e);
+        }
+    }
+
+    @Override
+    protected void onTaskStored(Task task) {
+        if (pages != null) {
+            pages.markDirty(getType(task), task.getId());
+        }
+    }
+
+    @Override
+    protected void onTaskRemoved(Task task) {
+        if (pages != null) {
+            pages.markDirty(getType(task), task.getId());
+        }
+    }
+
+    @Override
+    protected void onTasksCleared(Class<? extends Task> type) {
+        if (pages != null) {
+            pages.markCleared(type.getSimpleName());
+        }
+    }
+
+    private void loadPages() throws IOException {
+        boolean hasLegacySnapshot = !taskMap.isEmpty() || !taskEpicMap.isEmpty() || !subTaskMap.isEmpty();
+        pages.load(this::fromCsvString, this::restore);
+        if (!hasLegacySnapshot) return;
+
+        // Данные из обычного снимка переносим в страницы, после чего снимок больше не нужен
+        taskMap.forEachValue(this::onTaskStored);
+        taskEpicMap.forEachValue(this::onTaskStored);
+        subTaskMap.forEachValue(this::onTaskStored);
+        flushPages();
+        writeCsv(file, List.of(), true);
+    }
+
+    private void flushPages() {
+        if (!pages.isDirty()) return;
+
+        try {
+            pages.flush(this::readPage);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при сохранении страницы", e);
+        }
+    }
+
+    private List<String> readPage(String type, long page) {
+        LongMap<? extends Task> source;
+        if ("EpicTask".equals(type)) {
+            source = taskEpicMap;
+        } else if ("SubTask".equals(type)) {
+            source = subTaskMap;
+        } else {
+            source = taskMap;
+        }
+
+        List<String> rows = new ArrayList<>();
+        long firstId = pages.getFirstId(page);
+        for (long id = firstId; id < firstId + pages.getPageSize(); id++) {
+            Task task = source.get(id);
+            if (task != null) {
+                rows.add(taskToCsvString(task));
+            }
+        }
+        return rows;
+    }
+
+    private String putRecord(Task task) {
+        return task != null ? "PUT," + taskToCsvString(task) : null;
+    }
+
+    // TX,<число записей>␞запись␞...␞запись␞ — по числу и завершающему разделителю видно, что строка целая
+    private static String transactionRecord(List<String> records) {
+        StringBuilder record = new StringBuilder("TX,").append(records.size()).append(TX_SEPARATOR);
+        for (String value : records) {
+            escapeTx(record, value);
+            record.append(TX_SEPARATOR);
+        }
+        return record.toString();
+    }
+
+    private static void escapeTx(StringBuilder target, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == TX_SEPARATOR.charAt(0)) {
+                target.append(TX_ESCAPE).append('S');
+            } else if (c == TX_ESCAPE) {
+                target.append(TX_ESCAPE).append('E');
+            } else {
+                target.append(c);
+            }
+        }
+    }
+
+    private static String unescapeTx(String value) {
+        if (value.indexOf(TX_ESCAPE) < 0) return value;
+
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != TX_ESCAPE) {
+                result.append(c);
+                continue;
+            }
+            char code = ++i < value.length() ? value.charAt(i) : 0;
+            switch (code) {
+                case 'S':
+                    result.append(TX_SEPARATOR);
+                    break;
+                case 'E':
+                    result.append(TX_ESCAPE);
+                    break;
+                default:
+                    throw new ManagerLoadException("Некорректное экранирование в записи транзакции", null);
+            }
+        }
+        return result.toString();
+    }
+
+    private void replayTransaction(String value) {
+        String[] records = value.split(TX_SEPARATOR);
+        if (!value.endsWith(TX_SEPARATOR) || records.length != Integer.parseInt(records[0]) + 1) {
+            throw new ManagerLoadException("Неполная запись транзакции", null);
+        }
+        for (int i = 1; i < records.length; i++) {
+            applyRecord(unescapeTx(records[i]));
+        }
+    }
+
+    private void applyRecord(String record) {
+        int separator = record.indexOf(',');
+        String operation = record.substring(0, separator);
+        String value = record.substring(separator + 1);
+
+        switch (operation) {
+            case "PUT":
+                restore(fromCsvString(value));
+                break;
+            case "DEL":
+                String[] fields = value.split(",");
+                replayRemove(fields[0], Long.parseLong(fields[1]));
+                break;
+            case "CLEAR":
+                replayClear(value);
+                break;
+            case "TX":
+                replayTransaction(value);
+                break;
+            default:
+                throw new ManagerLoadException("Неизвестная запись журнала: " + record, null);
+        }
+    }
+
+    private void replayRemove(String type, long id) {
+        switch (type) {
+            case "Task":
+                super.removeTask(id);
+                break;
+            case "EpicTask":
+                super.removeEpicTask(id);
+                break;
+            case "SubTask":
+                super.removeSubTask(id);
+                break;
+            default:
+                throw new ManagerLoadException("Неизвестный тип задачи: " + type, null);
+        }
+    }
+
+    private void replayClear(String type) {
+        switch (type) {
+            case "Task":
+                super.deleteTask();
+                break;
+            case "EpicTask":
+                super.deleteEpicTask();
+                break;
+            case "SubTask":
+                super.deleteSubTask();
+                break;
+            default:
+                throw new ManagerLoadException("Неизвестный тип задачи: " + type, null);
+        }
+    }
+
+    private void restore(Task task) {
+        if (task instanceof EpicTask) {
+            restoreEpicTask((EpicTask) task);
+        } else if (task instanceof SubTask) {
+            restoreSubTask((SubTask) task);
+        } else if (task != null) {
+            restoreTask(task);
+        }
+    }
+
+    protected void saveToFile() {
+        try {
+            writeSnapshot(file, allTasks(snapshot()), false);
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка при сохранении в файл", e);
         }
     }
 
+    private void writeSnapshot(Path target, List<Task> tasks, boolean force) throws IOException {
+        if (format == SnapshotFormat.BINARY) {
+            BinarySnapshot.write(target, tasks, force);
+        } else {
+            writeCsv(target, tasks, force);
+        }
+    }
+
+    private void writeCsv(Path target, List<Task> tasks, boolean force) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8))) {
+            writer.write(CSV_HEADER);
+            writer.newLine();
+
+            for (Task task : tasks) {
+                writer.write(taskToCsvString(task));
+                writer.newLine();
+            }
+            writer.flush();
+            if (force) {
+                channel.force(true);
+            }
+        }
+    }
+
     protected String taskToCsvString(Task task) {
         String[] fields = new String[] {
                 String.valueOf(task.getId()),
@@ -153,27 +595,11 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     }
 
     private void loadFromFile(Path file) {
-
-        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
-
-            reader.readLine();
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                Task task = fromCsvString(line);
-                if (task != null) {
-                    if (task instanceof EpicTask) {
-                        taskEpicMap.put(task.getId(), (EpicTask) task);
-                    } else if (task instanceof SubTask) {
-                        SubTask subTask = (SubTask) task;
-                        subTaskMap.put(task.getId(), subTask);
-                        taskEpicMap.get(subTask.getEpicId())
-                                .getSubTasks()
-                                .add(subTask);
-                    } else {
-                        taskMap.put(task.getId(), task);
-                    }
-                }
+        try {
+            if (BinarySnapshot.isBinary(file)) {
+                BinarySnapshot.read(file, this::restore);
+            } else {
+                CsvSnapshotLoader.load(file, this::fromCsvString, this::restore);
             }
         } catch (IOException e) {
             throw new ManagerLoadException("Ошибка при загрузке из файла", e);
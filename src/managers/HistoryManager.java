@@ -2,12 +2,31 @@ package managers;
 
 import models.Task;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public interface HistoryManager {
 
     List<Task> getTasksHistory();
 
+    // Страница истории от новых просмотров к старым. after — id последней задачи предыдущей страницы,
+    // null — начать с самого свежего просмотра. Если задачи after в истории уже нет, страница пустая
+    default List<Task> getTasksHistory(int limit, Long after) {
+        List<Task> history = getTasksHistory();
+        List<Task> page = new ArrayList<>(Math.min(limit, history.size()));
+        int index = history.size() - 1;
+        if (after != null) {
+            while (index >= 0 && history.get(index).getId() != after) {
+                index--;
+            }
+            index--;
+        }
+        for (; index >= 0 && page.size() < limit; index--) {
+            page.add(history.get(index));
+        }
+        return page;
+    }
+
     void addTaskHistory(Task task);
 
     void removeTaskHistory(Long id);
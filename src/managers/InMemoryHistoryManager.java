@@ -3,9 +3,7 @@ package managers;
 import models.Task;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
 public class InMemoryHistoryManager implements HistoryManager {
 
@@ -21,12 +19,12 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
     }
 
-    private final Map<Long, Node> taskNodesHistory;
+    private final LongMap<Node> taskNodesHistory;
     private Node firstTaskNode;
     private Node lastTaskNode;
 
     public InMemoryHistoryManager() {
-        taskNodesHistory = new LinkedHashMap<>();
+        taskNodesHistory = new LongHashMap<>();
     }
 
     @Override
@@ -40,6 +38,21 @@ public class InMemoryHistoryManager implements HistoryManager {
         return result;
     }
 
+    @Override
+    public List<Task> getTasksHistory(int limit, Long after) {
+        Node current = lastTaskNode;
+        if (after != null) {
+            Node node = taskNodesHistory.get(after);
+            current = node != null ? node.prev : null;
+        }
+        List<Task> page = new ArrayList<>(Math.min(limit, taskNodesHistory.size()));
+        while (current != null && page.size() < limit) {
+            page.add(current.task);
+            current = current.prev;
+        }
+        return page;
+    }
+
     @Override
     public void addTaskHistory(Task task) {
         if (task == null) return;
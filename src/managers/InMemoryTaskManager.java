@@ -1,49 +1,82 @@
 package managers;
 
 import models.EpicTask;
+import models.StatusEnum;
 import models.SubTask;
 import models.Task;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 public class InMemoryTaskManager implements TaskManager {
-    private long generateId = 0;
-    protected Map<Long, Task> taskMap;
-    protected Map<Long, EpicTask> taskEpicMap;
-    protected Map<Long, SubTask> subTaskMap;
+    // Задачи без времени идут в конце
+    protected static final Comparator<Task> PRIORITY_ORDER =
+            Comparator.comparingLong((Task task) -> task.getStartEpochMicros() == Task.NO_TIME
+                            ? Long.MAX_VALUE : task.getStartEpochMicros())
+                    .thenComparingLong(Task::getId);
+
+    private final AtomicLong generateId = new AtomicLong();
+    // Списки, страницы и счетчики версий читаются из последнего опубликованного среза.
+    // Писатели публикуют новый срез по очереди под snapshotLock
+    private final Object snapshotLock = new Object();
+    private volatile TaskSnapshot snapshot = TaskSnapshot.EMPTY;
+    // Срез применяемой транзакции: читатели увидят ее целиком после commit
+    private TaskSnapshot staged;
+    protected LongMap<Task> taskMap;
+    protected LongMap<EpicTask> taskEpicMap;
+    protected LongMap<SubTask> subTaskMap;
     private HistoryManager historyManager;
-    private final Set<Task> prioritizedTasks = new TreeSet<>(
-            Comparator.comparing(Task::getStartTime, Comparator.nullsLast(Comparator.naturalOrder()))
-                    .thenComparing(Task::getId)
-    );
+    private final NavigableSet<Task> prioritizedTasks;
+    private final TimeIntervalIndex timeIndex;
+    // Пока применяется проверенная транзакция, пересечения уже исключены для итогового состояния,
+    // а промежуточные шаги проверять нельзя: задача может занять время, которое освободится позже
+    private boolean transactionValidated;
 
     public InMemoryTaskManager() {
-        taskMap = new HashMap<>();
-        taskEpicMap = new HashMap<>();
-        subTaskMap = new HashMap<>();
-        historyManager = Managers.getDefaultHistory();
+        this(new LongHashMap<>(), new LongHashMap<>(), new LongHashMap<>(), new TreeSet<>(PRIORITY_ORDER),
+                new TimeIntervalIndex(new TreeSet<>(TimeIntervalIndex.ORDER)), Managers.getDefaultHistory());
     }
 
+    protected InMemoryTaskManager(LongMap<Task> taskMap, LongMap<EpicTask> taskEpicMap,
+                                  LongMap<SubTask> subTaskMap, NavigableSet<Task> prioritizedTasks,
+                                  TimeIntervalIndex timeIndex, HistoryManager historyManager) {
+        this.taskMap = taskMap;
+        this.taskEpicMap = taskEpicMap;
+        this.subTaskMap = subTaskMap;
+        this.prioritizedTasks = prioritizedTasks;
+        this.timeIndex = timeIndex;
+        this.historyManager = historyManager;
+    }
 
     private long getGenerateId() {
-        generateId++;
-        return generateId;
+        return generateId.incrementAndGet();
     }
 
     @Override
     public void addTask(Task task) {
-        if (hasTimeOverlap(task)) {
+        if (overlaps(task, null)) {
             throw new IllegalStateException("Задача пересекается по времени с существующей");
         }
         task.setId(getGenerateId());
         taskMap.put(task.getId(), task);
         prioritizedTasks.add(task);
+        timeIndex.add(task);
+        onTaskStored(task);
+        publish(current -> withStored(current, task));
     }
 
     @Override
     public void deleteTask() {
+        for (Task task : taskMap.values()) {
+            prioritizedTasks.remove(task);
+            timeIndex.remove(task);
+        }
         taskMap.clear();
+        onTasksCleared(Task.class);
+        publish(TaskSnapshot::withoutTasks);
     }
 
     @Override
@@ -51,6 +84,9 @@ public class InMemoryTaskManager implements TaskManager {
         Task removedTask = taskMap.remove(deleteTask);
         if (removedTask != null) {
             prioritizedTasks.remove(removedTask);
+            timeIndex.remove(removedTask);
+            onTaskRemoved(removedTask);
+            publish(current -> current.withoutTask(deleteTask));
         }
         historyManager.removeTaskHistory(deleteTask);
     }
@@ -59,12 +95,24 @@ public class InMemoryTaskManager implements TaskManager {
     public void addEpicTask(EpicTask epicTask) {
         epicTask.setId(getGenerateId());
         taskEpicMap.put(epicTask.getId(), epicTask);
+        onTaskStored(epicTask);
+        publish(current -> withStored(current, epicTask));
     }
 
     @Override
     public void deleteEpicTask() {
+        for (SubTask subTask : subTaskMap.values()) {
+            prioritizedTasks.remove(subTask);
+            timeIndex.remove(subTask);
+        }
+        for (EpicTask epic : taskEpicMap.values()) {
+            prioritizedTasks.remove(epic);
+        }
         taskEpicMap.clear();
         subTaskMap.clear();
+        onTasksCleared(EpicTask.class);
+        onTasksCleared(SubTask.class);
+        publish(TaskSnapshot::withoutEpicTasks);
     }
 
     @Override
@@ -75,19 +123,30 @@ public class InMemoryTaskManager implements TaskManager {
             for (SubTask subTask : epic.getSubTasks()) {
                 subTaskMap.remove(subTask.getId());
                 prioritizedTasks.remove(subTask);
+                timeIndex.remove(subTask);
+                onTaskRemoved(subTask);
             }
+            onTaskRemoved(epic);
+            publish(current -> {
+                TaskSnapshot updated = current.withoutEpicTask(deleteEpicTask);
+                for (SubTask subTask : epic.getSubTasks()) {
+                    updated = updated.withoutSubTask(subTask.getId());
+                }
+                return updated;
+            });
         }
         historyManager.removeTaskHistory(deleteEpicTask);
     }
 
     @Override
     public void addSubTask(SubTask subTask) {
-        if (hasTimeOverlap(subTask)) {
+        if (overlaps(subTask, null)) {
             throw new IllegalStateException("Подзадача пересекается по времени с существующей задачей");
         }
 
         subTask.setId(getGenerateId());
         subTaskMap.put(subTask.getId(), subTask);
+        onTaskStored(subTask);
         EpicTask epic = taskEpicMap.get(subTask.getEpicId());
 
         if (epic != null) {
@@ -95,7 +154,9 @@ public class InMemoryTaskManager implements TaskManager {
             epic.updateStatus();
             epic.updateTime();
             prioritizedTasks.add(subTask); // Добавляем подзадачу в prioritizedTasks
+            timeIndex.add(subTask);
         }
+        publish(current -> withStored(current, subTask));
     }
 
     @Override
@@ -103,11 +164,21 @@ public class InMemoryTaskManager implements TaskManager {
         for (EpicTask epic : taskEpicMap.values()) {
             for (SubTask subTask : epic.getSubTasks()) {
                 subTaskMap.remove(subTask.getId());
+                prioritizedTasks.remove(subTask);
+                timeIndex.remove(subTask);
             }
             epic.getSubTasks().clear();
             epic.updateStatus();
         }
         subTaskMap.clear();
+        onTasksCleared(SubTask.class);
+        publish(current -> {
+            TaskSnapshot updated = current.withoutSubTasks();
+            for (EpicTask epic : taskEpicMap.values()) {
+                updated = updated.refreshEpicTask(epic);
+            }
+            return updated;
+        });
     }
 
     @Override
@@ -115,6 +186,8 @@ public class InMemoryTaskManager implements TaskManager {
         SubTask removedSubTask = subTaskMap.remove(deleteSubTask);
         if (removedSubTask != null) {
             prioritizedTasks.remove(removedSubTask);
+            timeIndex.remove(removedSubTask);
+            onTaskRemoved(removedSubTask);
 
             EpicTask epic = taskEpicMap.get(removedSubTask.getEpicId());
             if (epic != null) {
@@ -122,23 +195,365 @@ public class InMemoryTaskManager implements TaskManager {
                 epic.updateStatus();
                 epic.updateTime();
             }
+            publish(current -> {
+                TaskSnapshot updated = current.withoutSubTask(deleteSubTask);
+                return epic != null ? updated.refreshEpicTask(epic) : updated;
+            });
         }
         historyManager.removeTaskHistory(deleteSubTask);
     }
 
     @Override
     public List<Task> getTasks() {
-        return new ArrayList<>(taskMap.values());
+        return copies(snapshot.getTasks());
     }
 
     @Override
     public List<EpicTask> getEpicTasks() {
-        return new  ArrayList<>(taskEpicMap.values());
+        return copies(snapshot.getEpicTasks());
     }
 
     @Override
     public List<SubTask> getSubTasks() {
-        return new ArrayList<>(subTaskMap.values());
+        return copies(snapshot.getSubTasks());
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(StatusEnum status) {
+        return copies(snapshot.getTasksByStatus(status));
+    }
+
+    @Override
+    public List<SubTask> getSubTasksByStatus(StatusEnum status) {
+        return copies(snapshot.getSubTasksByStatus(status));
+    }
+
+    @Override
+    public int countByStatus(StatusEnum status) {
+        return snapshot.countByStatus(status);
+    }
+
+    @Override
+    public List<Task> getTasks(int limit, long after) {
+        return copies(snapshot.getTasks(limit, after));
+    }
+
+    @Override
+    public List<EpicTask> getEpicTasks(int limit, long after) {
+        return copies(snapshot.getEpicTasks(limit, after));
+    }
+
+    @Override
+    public List<SubTask> getSubTasks(int limit, long after) {
+        return copies(snapshot.getSubTasks(limit, after));
+    }
+
+    @Override
+    public List<BatchResult> applyBatch(List<BatchOperation> operations) {
+        List<BatchResult> results = new ArrayList<>(operations.size());
+        for (BatchOperation operation : operations) {
+            results.add(applyOperation(operation));
+        }
+        return results;
+    }
+
+    private BatchResult applyOperation(BatchOperation operation) {
+        Task task = operation.getTask();
+        try {
+            if (operation.getAction() != BatchOperation.Action.CREATE
+                    && !contains(operation.getTarget(), operation.getId())) {
+                return new BatchResult(BatchResult.Status.NOT_FOUND, operation.getId(), null);
+            }
+            return apply(operation);
+        } catch (IllegalStateException e) {
+            return new BatchResult(BatchResult.Status.CONFLICT, task != null ? task.getId() : operation.getId(),
+                    e.getMessage());
+        }
+    }
+
+    // Операции идут через обычные методы менеджера, чтобы наследники видели каждое изменение
+    private BatchResult apply(BatchOperation operation) {
+        Task task = operation.getTask();
+        switch (operation.getAction()) {
+            case CREATE:
+                if (task instanceof EpicTask) {
+                    addEpicTask((EpicTask) task);
+                } else if (task instanceof SubTask) {
+                    addSubTask((SubTask) task);
+                } else {
+                    addTask(task);
+                }
+                return new BatchResult(BatchResult.Status.CREATED, task.getId(), null);
+            case UPDATE:
+                if (task instanceof EpicTask) {
+                    updateEpicTask((EpicTask) task);
+                } else if (task instanceof SubTask) {
+                    updateSubTask((SubTask) task);
+                } else {
+                    updateTask(task);
+                }
+                return new BatchResult(BatchResult.Status.UPDATED, operation.getId(), null);
+            case DELETE:
+                switch (operation.getTarget()) {
+                    case EPIC:
+                        removeEpicTask(operation.getId());
+                        break;
+                    case SUBTASK:
+                        removeSubTask(operation.getId());
+                        break;
+                    default:
+                        removeTask(operation.getId());
+                }
+                return new BatchResult(BatchResult.Status.DELETED, operation.getId(), null);
+            default:
+                throw new IllegalArgumentException("Неизвестная операция: " + operation.getAction());
+        }
+    }
+
+    @Override
+    public TaskTransaction beginTransaction() {
+        return new TaskTransaction(this);
+    }
+
+    // Сначала одна проверка всего набора по индексу, затем применение без промежуточных проверок.
+    // Если шаг все же упал, живые задачи возвращаются к срезу до транзакции, а staged отбрасывается
+    @Override
+    public List<BatchResult> commitTransaction(List<BatchOperation> operations) {
+        validateTransaction(operations);
+        List<BatchResult> results = new ArrayList<>(operations.size());
+        TaskSnapshot before;
+        transactionValidated = true;
+        synchronized (snapshotLock) {
+            before = snapshot;
+            staged = snapshot;
+        }
+        try {
+            for (BatchOperation operation : operations) {
+                if (operation.getAction() == BatchOperation.Action.UPDATE
+                        && operation.getTask() instanceof SubTask) {
+                    moveSubTask((SubTask) operation.getTask());
+                }
+                results.add(apply(operation));
+            }
+        } catch (RuntimeException e) {
+            rollback(before);
+            synchronized (snapshotLock) {
+                staged = null;
+            }
+            throw e;
+        } finally {
+            transactionValidated = false;
+        }
+        synchronized (snapshotLock) {
+            snapshot = staged;
+            staged = null;
+        }
+        return results;
+    }
+
+    // Откат идет обычными методами менеджера, чтобы наследники видели каждое изменение; их срезы
+    // уходят в отбрасываемый staged. Задачи, которых транзакция не меняла, узнаются по версии
+    private void rollback(TaskSnapshot before) {
+        for (Task task : taskMap.values()) {
+            if (before.getTask(task.getId()) == null) {
+                removeTask(task.getId());
+            }
+        }
+        for (SubTask subTask : subTaskMap.values()) {
+            if (before.getSubTask(subTask.getId()) == null) {
+                removeSubTask(subTask.getId());
+            }
+        }
+        for (EpicTask epic : taskEpicMap.values()) {
+            if (before.getEpicTask(epic.getId()) == null) {
+                removeEpicTask(epic.getId());
+            }
+        }
+
+        before.forEachEpicTask(epic -> {
+            EpicTask live = taskEpicMap.get(epic.getId());
+            if (live == null) {
+                EpicTask restored = new EpicTask(epic.getName(), epic.getDescription(), epic.getStatus());
+                restored.setId(epic.getId());
+                restoreEpicTask(restored);
+                onTaskStored(restored);
+            } else if (live.getVersion() != epic.getVersion()) {
+                updateEpicTask(epic);
+            }
+        });
+        before.forEachTask(task -> {
+            Task live = taskMap.get(task.getId());
+            if (live == null) {
+                Task restored = task.copy();
+                restoreTask(restored);
+                onTaskStored(restored);
+            } else if (live.getVersion() != task.getVersion()) {
+                updateTask(task);
+            }
+        });
+        before.forEachSubTask(subTask -> {
+            SubTask live = subTaskMap.get(subTask.getId());
+            if (live == null) {
+                SubTask restored = subTask.copy();
+                restoreSubTask(restored);
+                onTaskStored(restored);
+            } else if (live.getVersion() != subTask.getVersion()) {
+                moveSubTask(subTask);
+                updateSubTask(subTask);
+            }
+        });
+    }
+
+    private void validateTransaction(List<BatchOperation> operations) {
+        Set<Long> deleted = new HashSet<>();
+        // Сохраненные задачи, чье время транзакция освобождает, и новые интервалы по id или в порядке создания
+        Set<Task> released = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<Long, Task> updated = new HashMap<>();
+        List<Task> created = new ArrayList<>();
+        // Подзадачи, которые транзакция переносит: id подзадачи -> новый эпик
+        Map<Long, Long> moved = new HashMap<>();
+
+        for (BatchOperation operation : operations) {
+            Task task = operation.getTask();
+            long id = operation.getId();
+            if (operation.getAction() == BatchOperation.Action.CREATE) {
+                if (task instanceof SubTask) {
+                    requireEpic(((SubTask) task).getEpicId(), deleted);
+                    created.add(task);
+                } else if (!(task instanceof EpicTask)) {
+                    created.add(task);
+                }
+                continue;
+            }
+            if (!contains(operation.getTarget(), id) || deleted.contains(id)) {
+                throw new IllegalStateException("Задача не найдена: " + id);
+            }
+
+            if (operation.getAction() == BatchOperation.Action.UPDATE) {
+                if (task instanceof SubTask) {
+                    SubTask stored = subTaskMap.get(id);
+                    long epicId = ((SubTask) task).getEpicId();
+                    if (epicId != stored.getEpicId()) {
+                        requireEpic(epicId, deleted);
+                        moved.put(id, epicId);
+                    }
+                    released.add(stored);
+                    if (taskEpicMap.containsKey(epicId)) {
+                        updated.put(id, task);
+                    }
+                } else if (!(task instanceof EpicTask)) {
+                    released.add(taskMap.get(id));
+                    updated.put(id, task);
+                }
+            } else if (operation.getAction() == BatchOperation.Action.DELETE) {
+                deleted.add(id);
+                updated.remove(id);
+                switch (operation.getTarget()) {
+                    case EPIC:
+                        for (SubTask subTask : taskEpicMap.get(id).getSubTasks()) {
+                            if (moved.getOrDefault(subTask.getId(), id) == id) {
+                                deleted.add(subTask.getId());
+                                updated.remove(subTask.getId());
+                                released.add(subTask);
+                            }
+                        }
+                        for (Map.Entry<Long, Long> entry : moved.entrySet()) {
+                            if (entry.getValue() == id) {
+                                deleted.add(entry.getKey());
+                                updated.remove(entry.getKey());
+                            }
+                        }
+                        break;
+                    case SUBTASK:
+                        released.add(subTaskMap.get(id));
+                        break;
+                    default:
+                        released.add(taskMap.get(id));
+                }
+            }
+        }
+
+        List<Task> claimed = new ArrayList<>(created);
+        claimed.addAll(updated.values());
+        for (Task task : claimed) {
+            if (timeIndex.hasOverlapExcept(task, released)) {
+                throw new IllegalStateException("Задача пересекается по времени с существующей: " + task.getName());
+            }
+        }
+        if (TimeIntervalIndex.hasMutualOverlap(claimed)) {
+            throw new IllegalStateException("Задачи транзакции пересекаются по времени между собой");
+        }
+    }
+
+    private void requireEpic(long epicId, Set<Long> deleted) {
+        if (!taskEpicMap.containsKey(epicId) || deleted.contains(epicId)) {
+            throw new IllegalStateException("Эпик не найден: " + epicId);
+        }
+    }
+
+    // Перенос подзадачи между эпиками. Поля и время обновит следующий за ним updateSubTask
+    private void moveSubTask(SubTask updateSubTask) {
+        SubTask subTask = subTaskMap.get(updateSubTask.getId());
+        if (subTask == null || subTask.getEpicId() == updateSubTask.getEpicId()) return;
+
+        EpicTask previous = taskEpicMap.get(subTask.getEpicId());
+        if (previous != null) {
+            previous.getSubTasks().remove(subTask);
+            previous.updateStatus();
+            previous.updateTime();
+            publish(current -> current.refreshEpicTask(previous));
+        } else {
+            prioritizedTasks.add(subTask);
+            timeIndex.add(subTask);
+        }
+        subTask.setEpicId(updateSubTask.getEpicId());
+        taskEpicMap.get(subTask.getEpicId()).getSubTasks().add(subTask);
+    }
+
+    private boolean contains(BatchOperation.Target target, long id) {
+        switch (target) {
+            case EPIC:
+                return taskEpicMap.containsKey(id);
+            case SUBTASK:
+                return subTaskMap.containsKey(id);
+            default:
+                return taskMap.containsKey(id);
+        }
+    }
+
+    @Override
+    public long getTasksVersion() {
+        return snapshot.getTasksVersion();
+    }
+
+    @Override
+    public long getEpicTasksVersion() {
+        return snapshot.getEpicTasksVersion();
+    }
+
+    @Override
+    public long getSubTasksVersion() {
+        return snapshot.getSubTasksVersion();
+    }
+
+    @Override
+    public long getPrioritizedVersion() {
+        return snapshot.getPrioritizedVersion();
+    }
+
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        snapshot.forEachTask(action);
+    }
+
+    @Override
+    public void forEachEpicTask(Consumer<? super EpicTask> action) {
+        snapshot.forEachEpicTask(action);
+    }
+
+    @Override
+    public void forEachSubTask(Consumer<? super SubTask> action) {
+        snapshot.forEachSubTask(action);
     }
 
     @Override
@@ -173,7 +588,21 @@ public class InMemoryTaskManager implements TaskManager {
         return historyManager.getTasksHistory();
     }
 
-    private boolean isTimeChanged(Task task, Task updateTask) {
+    @Override
+    public List<Task> getTasksHistory(int limit, Long after) {
+        return historyManager.getTasksHistory(limit, after);
+    }
+
+    // Срез отдает свои экземпляры только для чтения, вызывающему нужны изменяемые копии
+    @SuppressWarnings("unchecked")
+    protected static <T extends Task> List<T> copies(List<T> published) {
+        for (int i = 0; i < published.size(); i++) {
+            published.set(i, (T) published.get(i).copy());
+        }
+        return published;
+    }
+
+    protected static boolean isTimeChanged(Task task, Task updateTask) {
        return !Objects.equals(task.getStartTime(), updateTask.getStartTime()) ||
                 !Objects.equals(task.getDuration(), updateTask.getDuration());
     }
@@ -183,23 +612,29 @@ public class InMemoryTaskManager implements TaskManager {
         Task task = taskMap.get(updateTask.getId());
         if (task == null) return;
 
-        if (isTimeChanged(task, updateTask)) {
-            if (hasTimeOverlap(updateTask)) {
-                prioritizedTasks.add(task);
-                throw new IllegalStateException("Обновленная задача пересекается по времени с существующей");
-            }
+        // Без смены времени место задачи в индексах не меняется, и она из них не выходит:
+        // параллельная проверка пересечения не должна застать ее временно удаленной
+        boolean timeChanged = isTimeChanged(task, updateTask);
+        if (timeChanged && overlaps(updateTask, task)) {
+            throw new IllegalStateException("Обновленная задача пересекается по времени с существующей");
         }
 
-        prioritizedTasks.remove(task);
+        if (timeChanged) {
+            prioritizedTasks.remove(task);
+            timeIndex.remove(task);
+        }
         task.setName(updateTask.getName());
         task.setDescription(updateTask.getDescription());
         task.setStatus(updateTask.getStatus());
         task.setStartTime(updateTask.getStartTime());
         task.setDuration(updateTask.getDuration());
 
-        if (task.getStartTime() != null) {
+        if (timeChanged && task.getStartTime() != null) {
             prioritizedTasks.add(task);
+            timeIndex.add(task);
         }
+        onTaskStored(task);
+        publish(current -> withStored(current, task));
     }
 
     @Override
@@ -214,6 +649,8 @@ public class InMemoryTaskManager implements TaskManager {
             prioritizedTasks.add(epicTask);
         }
         epicTask.updateStatus();
+        onTaskStored(epicTask);
+        publish(current -> withStored(current, epicTask));
     }
 
     @Override
@@ -221,53 +658,168 @@ public class InMemoryTaskManager implements TaskManager {
         SubTask subTask = subTaskMap.get(updateSubTask.getId());
         if (subTask == null) return;
 
-        if (isTimeChanged(subTask, updateSubTask)) {
-            prioritizedTasks.remove(subTask);
-
-            if (hasTimeOverlap(updateSubTask)) {
-                prioritizedTasks.add(subTask);
-                throw new IllegalStateException("Обновленная подзадача пересекается по времени с существующей");
-            }
+        boolean timeChanged = isTimeChanged(subTask, updateSubTask);
+        if (timeChanged && overlaps(updateSubTask, subTask)) {
+            throw new IllegalStateException("Обновленная подзадача пересекается по времени с существующей");
         }
 
+        if (timeChanged) {
+            prioritizedTasks.remove(subTask);
+            timeIndex.remove(subTask);
+        }
         subTask.setName(updateSubTask.getName());
         subTask.setDescription(updateSubTask.getDescription());
         subTask.setStatus(updateSubTask.getStatus());
         subTask.setStartTime(updateSubTask.getStartTime());
         subTask.setDuration(updateSubTask.getDuration());
 
-        if (isTimeChanged(subTask, updateSubTask) && subTask.getStartTime() != null) {
+        EpicTask epicTask = taskEpicMap.get(subTask.getEpicId());
+        if (timeChanged && epicTask != null && subTask.getStartTime() != null) {
             prioritizedTasks.add(subTask);
+            timeIndex.add(subTask);
         }
-
-        EpicTask epicTask = getEpicTask(subTask.getEpicId());
         if (epicTask != null) {
             epicTask.updateStatus();
             epicTask.updateTime();
         }
+        onTaskStored(subTask);
+        publish(current -> withStored(current, subTask));
     }
 
     @Override
     public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritizedTasks);
+        return copies(snapshot.getPrioritizedTasks());
     }
 
-    private boolean isTimeOverlap(Task task1, Task task2) {
-        if (task1.getStartTime() == null || task2.getStartTime() == null)
-            return false;
+    @Override
+    public List<Task> getPrioritizedTasks(int limit, Task after) {
+        return copies(snapshot.getPrioritizedTasks(limit, after));
+    }
 
-        LocalDateTime start1 = task1.getStartTime();
-        LocalDateTime end1 = task1.getEndTime();
-        LocalDateTime start2 = task2.getStartTime();
-        LocalDateTime end2 = task2.getEndTime();
+    @Override
+    public void forEachPrioritizedTask(Consumer<? super Task> action) {
+        snapshot.forEachPrioritizedTask(action);
+    }
 
-        return !(end1.isBefore(start2) || end2.isBefore(start1));
+    @Override
+    public List<Task> getTasksInTimeRange(LocalDateTime from, LocalDateTime to) {
+        return timeIndex.findOverlapping(from, to);
     }
 
     public boolean hasTimeOverlap(Task newTask) {
-        if (newTask.getStartTime() == null) return false;
+        return timeIndex.hasOverlap(newTask, null);
+    }
+
+    private boolean overlaps(Task task, Task ignored) {
+        return !transactionValidated && timeIndex.hasOverlap(task, ignored);
+    }
+
+    // Точки расширения для наследников, которым нужно знать, какие задачи изменились
+    protected void onTaskStored(Task task) {
+    }
+
+    protected void onTaskRemoved(Task task) {
+    }
+
+    protected void onTasksCleared(Class<? extends Task> type) {
+    }
+
+    protected void restoreTask(Task task) {
+        Task previous = taskMap.put(task.getId(), task);
+        if (previous != null) {
+            prioritizedTasks.remove(previous);
+            timeIndex.remove(previous);
+        }
+        if (task.getStartTime() != null) {
+            prioritizedTasks.add(task);
+        }
+        timeIndex.add(task);
+        restoreId(task.getId());
+    }
+
+    protected void restoreEpicTask(EpicTask epicTask) {
+        EpicTask existing = taskEpicMap.get(epicTask.getId());
+        if (existing != null) {
+            existing.setName(epicTask.getName());
+            existing.setDescription(epicTask.getDescription());
+        } else {
+            taskEpicMap.put(epicTask.getId(), epicTask);
+        }
+        restoreId(epicTask.getId());
+    }
+
+    protected void restoreSubTask(SubTask subTask) {
+        SubTask previous = subTaskMap.put(subTask.getId(), subTask);
+        if (previous != null) {
+            prioritizedTasks.remove(previous);
+            timeIndex.remove(previous);
+            EpicTask previousEpic = taskEpicMap.get(previous.getEpicId());
+            if (previousEpic != null) {
+                previousEpic.getSubTasks().remove(previous);
+            }
+        }
+
+        EpicTask epic = taskEpicMap.get(subTask.getEpicId());
+        if (epic != null) {
+            epic.getSubTasks().add(subTask);
+            epic.updateStatus();
+            epic.updateTime();
+            if (subTask.getStartTime() != null) {
+                prioritizedTasks.add(subTask);
+                timeIndex.add(subTask);
+            }
+        }
+        restoreId(subTask.getId());
+    }
+
+    @Override
+    public TaskSnapshot snapshot() {
+        return snapshot;
+    }
+
+    // Восстановление не публикует срез по одной задаче: после загрузки наследник пересобирает его целиком
+    protected void publishAll() {
+        synchronized (snapshotLock) {
+            TaskSnapshot rebuilt = snapshot.emptied();
+            for (Task task : taskMap.values()) {
+                rebuilt = withStored(rebuilt, task);
+            }
+            for (SubTask subTask : subTaskMap.values()) {
+                rebuilt = withStored(rebuilt, subTask);
+            }
+            for (EpicTask epic : taskEpicMap.values()) {
+                rebuilt = withStored(rebuilt, epic);
+            }
+            snapshot = rebuilt;
+        }
+    }
+
+    private void publish(UnaryOperator<TaskSnapshot> change) {
+        synchronized (snapshotLock) {
+            if (staged != null) {
+                staged = change.apply(staged);
+            } else {
+                snapshot = change.apply(snapshot);
+            }
+        }
+    }
+
+    // Копия задачи в срез с тем же местом в списке приоритета, что и у живой задачи.
+    // Эпик кладется после своих подзадач, чтобы взять их уже обновленными
+    private TaskSnapshot withStored(TaskSnapshot current, Task task) {
+        boolean inPrioritized = prioritizedTasks.contains(task);
+        if (task instanceof EpicTask) {
+            return current.withEpicTask((EpicTask) task, inPrioritized);
+        } else if (task instanceof SubTask) {
+            SubTask subTask = (SubTask) task;
+            EpicTask epic = taskEpicMap.get(subTask.getEpicId());
+            TaskSnapshot updated = current.withSubTask(subTask, inPrioritized, epic != null);
+            return epic != null ? updated.refreshEpicTask(epic) : updated;
+        }
+        return current.withTask(task, inPrioritized);
+    }
 
-        return prioritizedTasks.stream()
-                .anyMatch(existingTask -> isTimeOverlap(newTask, existingTask));
+    private void restoreId(long id) {
+        generateId.accumulateAndGet(id, Math::max);
     }
 }
@@ -0,0 +1,208 @@
+package managers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+// Открытая адресация (Robin Hood с линейным пробированием): ключи и значения лежат в двух массивах,
+// на запись нет ни Long, ни узла. Пустую ячейку обозначает null в массиве значений
+public class LongHashMap<V> implements LongMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public LongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        long[] keys = this.keys;
+        Object[] values = this.values;
+        int mask = keys.length - 1;
+        int index = slot(key, mask);
+        // Число шагов ограничено размером таблицы, чтобы чтение без блокировки не зациклилось
+        for (int distance = 0; distance <= mask; distance++) {
+            Object value = values[index];
+            if (value == null) {
+                return null;
+            }
+            long resident = keys[index];
+            if (resident == key) {
+                return (V) value;
+            }
+            if (((index - slot(resident, mask)) & mask) < distance) {
+                return null;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        Objects.requireNonNull(value, "value");
+        int index = indexOf(key);
+        if (index >= 0) {
+            V previous = (V) values[index];
+            values[index] = value;
+            return previous;
+        }
+        insert(key, value);
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V previous = (V) values[index];
+        shiftBack(index);
+        size--;
+        return previous;
+    }
+
+    @Override
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        for (Object value : values) {
+            if (value != null) {
+                result.add((V) value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        for (Object value : values) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    private int indexOf(long key) {
+        int index = slot(key, mask);
+        for (int distance = 0; values[index] != null; distance++) {
+            if (keys[index] == key) {
+                return index;
+            }
+            if (distanceAt(index) < distance) {
+                return -1;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Robin Hood: новая запись вытесняет ту, что стоит ближе к своей исходной ячейке,
+    // поэтому внутри цепочки записи упорядочены по исходной ячейке
+    private void insert(long key, Object value) {
+        int index = slot(key, mask);
+        int distance = 0;
+        while (values[index] != null) {
+            int residentDistance = distanceAt(index);
+            if (residentDistance < distance) {
+                long residentKey = keys[index];
+                Object residentValue = values[index];
+                keys[index] = key;
+                values[index] = value;
+                key = residentKey;
+                value = residentValue;
+                distance = residentDistance;
+            }
+            index = (index + 1) & mask;
+            distance++;
+        }
+        keys[index] = key;
+        values[index] = value;
+    }
+
+    // Удаление без надгробий: хвост цепочки сдвигается назад до первой записи, стоящей в своей ячейке
+    private void shiftBack(int gap) {
+        int next = (gap + 1) & mask;
+        while (values[next] != null && distanceAt(next) > 0) {
+            keys[gap] = keys[next];
+            values[gap] = values[next];
+            gap = next;
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private int distanceAt(int index) {
+        return (index - slot(keys[index], mask)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity - (capacity >>> 2);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (long) Math.ceil(expectedSize / 0.75));
+        return (int) Math.min(1 << 30, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    // Идентификаторы выдаются подряд и сразу ложатся в соседние ячейки без коллизий,
+    // а обход, как и у HashMap, идет по возрастанию id
+    private static int slot(long key, int mask) {
+        int h = (int) (key ^ (key >>> 32));
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
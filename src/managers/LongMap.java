@@ -0,0 +1,27 @@
+package managers;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+// Отображение из примитивного long без упаковки ключей в Long
+public interface LongMap<V> {
+
+    V get(long key);
+
+    V put(long key, V value);
+
+    V remove(long key);
+
+    boolean containsKey(long key);
+
+    int size();
+
+    boolean isEmpty();
+
+    void clear();
+
+    // Копия значений, которую можно обходить и во время изменения отображения
+    List<V> values();
+
+    void forEachValue(Consumer<? super V> action);
+}
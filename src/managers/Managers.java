@@ -7,12 +7,21 @@ import java.nio.file.Paths;
 
 public class Managers {
     public static TaskManager getDefault() {
+        return new FileBackedTaskManager(defaultFile(), PersistenceMode.JOURNAL);
+    }
+
+    // Для сервера, который обрабатывает запросы в нескольких потоках
+    public static TaskManager getConcurrentDefault() {
+        return new ConcurrentFileBackedTaskManager(defaultFile(), PersistenceMode.JOURNAL);
+    }
+
+    private static Path defaultFile() {
         Path path = Paths.get("backup.csv");
         try {
             if (!Files.exists(path)) {
                 Files.createFile(path);
             }
-            return new FileBackedTaskManager(path);
+            return path;
         } catch (IOException e) {
             throw new RuntimeException("Failed to create backup file", e);
         }
@@ -22,7 +31,15 @@ public class Managers {
         return new InMemoryHistoryManager();
     }
 
+    public static HistoryManager getConcurrentHistory() {
+        return new ConcurrentHistoryManager();
+    }
+
     public static TaskManager getInMemoryTaskManager() {
         return new InMemoryTaskManager();
     }
+
+    public static TaskManager getConcurrentTaskManager() {
+        return new ConcurrentTaskManager();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package managers;
+
+import models.Task;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Каждый тип задач хранится страницами по диапазонам id: <тип>-<номер>.csv.
+// При сохранении переписываются только страницы, в которых что-то поменялось
+class PagedTaskStore {
+    static final String[] TYPES = {"Task", "EpicTask", "SubTask"};
+
+    private final Path directory;
+    private final int pageSize;
+    private final Map<String, Set<Long>> dirtyPages = new LinkedHashMap<>();
+    private final Set<String> clearedTypes = new HashSet<>();
+
+    PagedTaskStore(Path directory, int pageSize) {
+        this.directory = directory;
+        this.pageSize = pageSize;
+        for (String type : TYPES) {
+            dirtyPages.put(type, new HashSet<>());
+        }
+    }
+
+    void markDirty(String type, long id) {
+        dirtyPages.get(type).add(id / pageSize);
+    }
+
+    void markCleared(String type) {
+        clearedTypes.add(type);
+        dirtyPages.get(type).clear();
+    }
+
+    boolean isDirty() {
+        if (!clearedTypes.isEmpty()) return true;
+        for (Set<Long> pages : dirtyPages.values()) {
+            if (!pages.isEmpty()) return true;
+        }
+        return false;
+    }
+
+    long getFirstId(long page) {
+        return page * pageSize;
+    }
+
+    int getPageSize() {
+        return pageSize;
+    }
+
+    // pageReader по типу и номеру страницы возвращает строки задач, которые сейчас на ней лежат
+    void flush(PageReader pageReader) throws IOException {
+        Files.createDirectories(directory);
+        for (String type : clearedTypes) {
+            deletePages(type);
+        }
+        clearedTypes.clear();
+
+        for (Map.Entry<String, Set<Long>> entry : dirtyPages.entrySet()) {
+            String type = entry.getKey();
+            for (long page : entry.getValue()) {
+                writePage(type, page, pageReader.read(type, page));
+            }
+            entry.getValue().clear();
+        }
+    }
+
+    void load(Function<String, Task> parser, Consumer<Task> consumer) throws IOException {
+        if (!Files.isDirectory(directory)) return;
+
+        for (String type : TYPES) {
+            for (Path page : listPages(type)) {
+                for (String line : Files.readAllLines(page, StandardCharsets.UTF_8)) {
+                    if (!line.isEmpty()) {
+                        Task task = parser.apply(line);
+                        if (task != null) {
+                            consumer.accept(task);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void writePage(String type, long page, List<String> rows) throws IOException {
+        Path target = directory.resolve(type + "-" + page + ".csv");
+        if (rows.isEmpty()) {
+            Files.deleteIfExists(target);
+            return;
+        }
+
+        Path tmp = directory.resolve(type + "-" + page + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (String row : rows) {
+                writer.write(row);
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deletePages(String type) throws IOException {
+        for (Path page : listPages(type)) {
+            Files.delete(page);
+        }
+    }
+
+    private List<Path> listPages(String type) throws IOException {
+        List<Path> pages = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, type + "-*.csv")) {
+            for (Path page : stream) {
+                pages.add(page);
+            }
+        }
+        return pages;
+    }
+
+    interface PageReader {
+        List<String> read(String type, long page);
+    }
+}
@@ -0,0 +1,7 @@
+package managers;
+
+public enum PersistenceMode {
+    SNAPSHOT,
+    JOURNAL,
+    PAGED
+}
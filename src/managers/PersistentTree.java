@@ -0,0 +1,204 @@
+package managers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// Неизменяемое AVL-дерево по паре (key, tie). Изменение копирует только путь от корня, O(log n),
+// а прежние версии остаются целыми, поэтому их читают без блокировок
+final class PersistentTree<T> {
+    private static final PersistentTree<?> EMPTY = new PersistentTree<>(null);
+
+    private static final class Node<T> {
+        final long key;
+        final long tie;
+        final T value;
+        final Node<T> left;
+        final Node<T> right;
+        final int height;
+        final int size;
+
+        Node(long key, long tie, T value, Node<T> left, Node<T> right) {
+            this.key = key;
+            this.tie = tie;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+
+        Node<T> with(Node<T> left, Node<T> right) {
+            return new Node<>(key, tie, value, left, right);
+        }
+    }
+
+    private final Node<T> root;
+
+    private PersistentTree(Node<T> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> PersistentTree<T> empty() {
+        return (PersistentTree<T>) EMPTY;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    T get(long key, long tie) {
+        Node<T> node = root;
+        while (node != null) {
+            int c = compare(key, tie, node);
+            if (c == 0) return node.value;
+            node = c < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    PersistentTree<T> put(long key, long tie, T value) {
+        return new PersistentTree<>(put(root, key, tie, value));
+    }
+
+    PersistentTree<T> remove(long key, long tie) {
+        Node<T> updated = remove(root, key, tie);
+        return updated == root ? this : new PersistentTree<>(updated);
+    }
+
+    void forEach(Consumer<? super T> action) {
+        forEach(root, action);
+    }
+
+    List<T> toList() {
+        List<T> values = new ArrayList<>(size());
+        forEach(values::add);
+        return values;
+    }
+
+    // Не больше limit значений с ключом строго больше (key, tie)
+    List<T> after(long key, long tie, int limit) {
+        List<T> values = new ArrayList<>(Math.min(limit, 1024));
+        if (limit > 0) {
+            forEachAfter(key, tie, value -> {
+                values.add(value);
+                return values.size() < limit;
+            });
+        }
+        return values;
+    }
+
+    // Обход по возрастанию с первого ключа больше (key, tie), пока action возвращает true
+    void forEachAfter(long key, long tie, Predicate<? super T> action) {
+        Deque<Node<T>> path = new ArrayDeque<>();
+        Node<T> node = root;
+        while (node != null) {
+            if (compare(key, tie, node) < 0) {
+                path.push(node);
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        while (!path.isEmpty()) {
+            Node<T> next = path.pop();
+            if (!action.test(next.value)) return;
+            for (Node<T> child = next.right; child != null; child = child.left) {
+                path.push(child);
+            }
+        }
+    }
+
+    private static <T> void forEach(Node<T> node, Consumer<? super T> action) {
+        while (node != null) {
+            forEach(node.left, action);
+            action.accept(node.value);
+            node = node.right;
+        }
+    }
+
+    private static <T> Node<T> put(Node<T> node, long key, long tie, T value) {
+        if (node == null) {
+            return new Node<>(key, tie, value, null, null);
+        }
+        int c = compare(key, tie, node);
+        if (c < 0) {
+            return balance(node.with(put(node.left, key, tie, value), node.right));
+        } else if (c > 0) {
+            return balance(node.with(node.left, put(node.right, key, tie, value)));
+        }
+        return new Node<>(key, tie, value, node.left, node.right);
+    }
+
+    private static <T> Node<T> remove(Node<T> node, long key, long tie) {
+        if (node == null) return null;
+
+        int c = compare(key, tie, node);
+        if (c < 0) {
+            Node<T> left = remove(node.left, key, tie);
+            return left == node.left ? node : balance(node.with(left, node.right));
+        } else if (c > 0) {
+            Node<T> right = remove(node.right, key, tie);
+            return right == node.right ? node : balance(node.with(node.left, right));
+        }
+        if (node.left == null) return node.right;
+        if (node.right == null) return node.left;
+
+        Node<T> min = node.right;
+        while (min.left != null) {
+            min = min.left;
+        }
+        return balance(new Node<>(min.key, min.tie, min.value, node.left, removeMin(node.right)));
+    }
+
+    private static <T> Node<T> removeMin(Node<T> node) {
+        if (node.left == null) return node.right;
+        return balance(node.with(removeMin(node.left), node.right));
+    }
+
+    private static <T> Node<T> balance(Node<T> node) {
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            Node<T> left = node.left;
+            if (height(left.left) < height(left.right)) {
+                left = rotateLeft(left);
+            }
+            return rotateRight(node.with(left, node.right));
+        }
+        if (factor < -1) {
+            Node<T> right = node.right;
+            if (height(right.right) < height(right.left)) {
+                right = rotateRight(right);
+            }
+            return rotateLeft(node.with(node.left, right));
+        }
+        return node;
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        return left.with(left.left, node.with(left.right, node.right));
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        return right.with(node.with(node.left, right.left), right.right);
+    }
+
+    private static int compare(long key, long tie, Node<?> node) {
+        int c = Long.compare(key, node.key);
+        return c != 0 ? c : Long.compare(tie, node.tie);
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+}
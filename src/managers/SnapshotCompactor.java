@@ -0,0 +1,118 @@
+package managers;
+
+import exceptions.ManagerSaveException;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+class SnapshotCompactor implements Closeable {
+    private static final long MAX_CHECK_INTERVAL_MILLIS = 60_000;
+
+    private final CompactionPolicy policy;
+    private final TaskJournal journal;
+    private final Runnable compaction;
+    private final ScheduledExecutorService executor;
+    private final Semaphore running = new Semaphore(1);
+    private volatile Duration lastDuration = Duration.ZERO;
+    private volatile long compactions;
+    // Последняя ошибка фонового сжатия. Писателям она не бросается: их изменение к этому времени
+    // уже в журнале. Сжатие повторяется по обычному расписанию, ошибку бросают только runNow и close
+    private volatile RuntimeException failure;
+
+    SnapshotCompactor(CompactionPolicy policy, TaskJournal journal, Runnable compaction) {
+        this.policy = policy;
+        this.journal = journal;
+        this.compaction = compaction;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long interval = Math.max(1, Math.min(policy.getMaxJournalAge().toMillis(), MAX_CHECK_INTERVAL_MILLIS));
+        executor.scheduleWithFixedDelay(this::startIfExceeded, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    void maybeCompact() {
+        startIfExceeded();
+    }
+
+    void submit() {
+        start();
+    }
+
+    // Явное сжатие само сообщает о своей ошибке, прежняя фоновая после успеха уже неважна
+    void runNow() {
+        running.acquireUninterruptibly();
+        try {
+            run();
+            failure = null;
+        } finally {
+            running.release();
+        }
+    }
+
+    private void startIfExceeded() {
+        if (policy.isExceeded(journal.getBytes(), journal.getRecords(), journal.getAge())) {
+            start();
+        }
+    }
+
+    private void start() {
+        if (running.tryAcquire()) {
+            executor.execute(() -> {
+                try {
+                    run();
+                    failure = null;
+                } catch (RuntimeException e) {
+                    failure = e;
+                    System.err.println("Ошибка при фоновом сжатии журнала: " + e.getMessage());
+                } finally {
+                    running.release();
+                }
+            });
+        }
+    }
+
+    private void throwFailure() {
+        RuntimeException e = failure;
+        if (e != null) {
+            failure = null;
+            throw new ManagerSaveException("Ошибка при фоновом сжатии журнала", e);
+        }
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        compaction.run();
+        lastDuration = Duration.ofNanos(System.nanoTime() - start);
+        compactions++;
+    }
+
+    RuntimeException getFailure() {
+        return failure;
+    }
+
+    Duration getLastDuration() {
+        return lastDuration;
+    }
+
+    long getCompactions() {
+        return compactions;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throwFailure();
+    }
+}
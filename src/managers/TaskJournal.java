@@ -0,0 +1,339 @@
+package managers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+class TaskJournal implements Closeable {
+    private final Path path;
+    private final DurabilityPolicy durability;
+    private final Object lock = new Object();
+    private final ReentrantLock ioLock = new ReentrantLock();
+
+    private List<String> pending = new ArrayList<>();
+    private long enqueued;
+    private volatile long written;
+    private volatile long durable;
+    private IOException failure;
+    private boolean closed;
+    private Thread writerThread;
+
+    private FileChannel channel;
+    private Writer writer;
+    private long lastForceAt;
+
+    private volatile long records;
+    private volatile long bytes;
+    private volatile long firstRecordAt;
+
+    TaskJournal(Path path) {
+        this(path, DurabilityPolicy.DEFAULT);
+    }
+
+    TaskJournal(Path path, DurabilityPolicy durability) {
+        this.path = path;
+        this.durability = durability;
+    }
+
+    long append(String record) throws IOException {
+        long sequence;
+        synchronized (lock) {
+            if (failure != null) {
+                throw new IOException("Журнал недоступен после ошибки записи", failure);
+            }
+            if (writerThread == null) {
+                startWriter();
+            }
+            pending.add(record);
+            sequence = ++enqueued;
+            lock.notifyAll();
+        }
+
+        countRecord(utf8Length(record) + 1);
+        return sequence;
+    }
+
+    void awaitDurable(long sequence) throws IOException {
+        if (durability.getMode() != DurabilityMode.FSYNC_BATCH) return;
+
+        synchronized (lock) {
+            while (durable < sequence && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Ожидание записи журнала прервано");
+                }
+            }
+            if (durable < sequence) {
+                throw new IOException("Ошибка записи журнала", failure);
+            }
+        }
+    }
+
+    // Хвост без перевода строки или с нечитаемой последней записью — след падения посреди записи.
+    // Его отрезаем до начала записи: иначе следующая запись дописалась бы прямо к оборванным байтам
+    void replay(Consumer<String> consumer) throws IOException {
+        if (!Files.exists(path)) return;
+
+        long validEnd = 0;
+        long offset = 0;
+        RuntimeException torn = null;
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                int start = 0;
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] != '\n') continue;
+
+                    line.write(buffer, start, i - start);
+                    start = i + 1;
+                    int length = line.size() + 1;
+                    String record = line.toString(StandardCharsets.UTF_8);
+                    line.reset();
+                    if (record.isEmpty()) {
+                        if (torn == null) validEnd = offset + start;
+                        continue;
+                    }
+                    if (torn != null) throw torn;
+                    try {
+                        consumer.accept(record);
+                        countRecord(length);
+                        validEnd = offset + start;
+                    } catch (RuntimeException e) {
+                        torn = e;
+                    }
+                }
+                line.write(buffer, start, read - start);
+                offset += read;
+            }
+        }
+        if (torn != null && line.size() > 0) throw torn;
+
+        if (validEnd < offset) {
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                file.truncate(validEnd);
+            }
+        }
+    }
+
+    // length — байты записи в файле вместе с переводом строки
+    private void countRecord(long length) {
+        if (records == 0) {
+            firstRecordAt = System.currentTimeMillis();
+        }
+        records++;
+        bytes += length;
+    }
+
+    // Длина в UTF-8 без кодирования строки: кириллица занимает два байта, а не один символ.
+    // Непарный суррогат writer заменяет одним байтом '?'
+    private static int utf8Length(String record) {
+        int length = 0;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < record.length()
+                    && Character.isLowSurrogate(record.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    void truncate() throws IOException {
+        ioLock.lock();
+        try {
+            flushPending(true);
+            closeChannel();
+            Files.deleteIfExists(path);
+            records = 0;
+            bytes = 0;
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    void rotate(Path target) throws IOException {
+        ioLock.lock();
+        try {
+            flushPending(true);
+            closeChannel();
+            if (Files.exists(path)) {
+                if (Files.exists(target)) {
+                    Files.write(target, Files.readAllBytes(path), StandardOpenOption.APPEND);
+                    Files.delete(path);
+                } else {
+                    Files.move(path, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            records = 0;
+            bytes = 0;
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    long getRecords() {
+        return records;
+    }
+
+    long getBytes() {
+        return bytes;
+    }
+
+    Duration getAge() {
+        if (records == 0) return Duration.ZERO;
+        return Duration.ofMillis(System.currentTimeMillis() - firstRecordAt);
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Thread thread;
+        synchronized (lock) {
+            closed = true;
+            thread = writerThread;
+            writerThread = null;
+            lock.notifyAll();
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        ioLock.lock();
+        try {
+            flushPending(true);
+            closeChannel();
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    private void startWriter() {
+        closed = false;
+        writerThread = new Thread(this::writeLoop, "journal-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    private void writeLoop() {
+        while (true) {
+            synchronized (lock) {
+                try {
+                    while (pending.isEmpty() && !closed && !isForceDue()) {
+                        lock.wait(waitMillis());
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (closed) return;
+            }
+
+            ioLock.lock();
+            try {
+                flushPending(false);
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            } finally {
+                ioLock.unlock();
+            }
+        }
+    }
+
+    private boolean isForceDue() {
+        return durability.getMode() == DurabilityMode.FSYNC_INTERVAL
+                && written > durable
+                && System.currentTimeMillis() - lastForceAt >= durability.getFsyncInterval().toMillis();
+    }
+
+    private long waitMillis() {
+        if (durability.getMode() != DurabilityMode.FSYNC_INTERVAL || written <= durable) return 0;
+        long remaining = durability.getFsyncInterval().toMillis() - (System.currentTimeMillis() - lastForceAt);
+        return Math.max(1, remaining);
+    }
+
+    // Вызывается под ioLock: одна пачка записей — одна запись в файл и не более одного fsync
+    private void flushPending(boolean force) throws IOException {
+        List<String> batch;
+        long batchSequence;
+        synchronized (lock) {
+            batch = pending;
+            pending = new ArrayList<>();
+            batchSequence = enqueued;
+        }
+
+        if (!batch.isEmpty()) {
+            if (writer == null) {
+                channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+            }
+            for (String record : batch) {
+                writer.write(record);
+                writer.write('\n');
+            }
+            writer.flush();
+            written = batchSequence;
+        }
+
+        boolean shouldForce = force
+                || durability.getMode() == DurabilityMode.FSYNC_BATCH
+                || isForceDue();
+        if (shouldForce && channel != null && written > durable) {
+            channel.force(false);
+            lastForceAt = System.currentTimeMillis();
+        }
+
+        synchronized (lock) {
+            if (shouldForce || durability.getMode() == DurabilityMode.OS_BUFFERED) {
+                durable = written;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            channel = null;
+        }
+    }
+}
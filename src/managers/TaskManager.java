@@ -1,10 +1,13 @@
 package managers;
 
 import models.EpicTask;
+import models.StatusEnum;
 import models.SubTask;
 import models.Task;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TaskManager {
 
@@ -46,7 +49,62 @@ public interface TaskManager {
 
     List<SubTask> getSubTasks(long idEpicTask);
 
+    // Колонки доски: выборка и счетчик берутся из индекса по статусу, без обхода хранилища
+    List<Task> getTasksByStatus(StatusEnum status);
+
+    List<SubTask> getSubTasksByStatus(StatusEnum status);
+
+    // Задачи и подзадачи в статусе; эпики не считаются, их статус производный
+    int countByStatus(StatusEnum status);
+
+    // Страницы по возрастанию id: не больше limit задач с id больше after
+    List<Task> getTasks(int limit, long after);
+
+    List<EpicTask> getEpicTasks(int limit, long after);
+
+    List<SubTask> getSubTasks(int limit, long after);
+
+    // Обход без копирования в список: задачи отдаются action по мере чтения хранилища
+    void forEachTask(Consumer<? super Task> action);
+
+    void forEachEpicTask(Consumer<? super EpicTask> action);
+
+    void forEachSubTask(Consumer<? super SubTask> action);
+
     List<Task> getTasksHistory();
 
+    List<Task> getTasksHistory(int limit, Long after);
+
     List<Task> getPrioritizedTasks();
+
+    // Страница в порядке приоритета; after — последняя задача предыдущей страницы,
+    // из нее берутся только startTime и id. null — с начала
+    List<Task> getPrioritizedTasks(int limit, Task after);
+
+    void forEachPrioritizedTask(Consumer<? super Task> action);
+
+    List<Task> getTasksInTimeRange(LocalDateTime from, LocalDateTime to);
+
+    // Счетчики изменений коллекций: растут при каждом изменении через менеджер
+    // и не меняются при чтении, поэтому годятся для ETag списков
+    long getTasksVersion();
+
+    long getEpicTasksVersion();
+
+    long getSubTasksVersion();
+
+    long getPrioritizedVersion();
+
+    // Текущий неизменяемый срез всех коллекций. Берется за O(1), читается без блокировок,
+    // списки, страницы и версии в нем согласованы между собой
+    TaskSnapshot snapshot();
+
+    // Операции применяются по порядку, каждая независимо; результат i соответствует операции i
+    List<BatchResult> applyBatch(List<BatchOperation> operations);
+
+    TaskTransaction beginTransaction();
+
+    // Все или ничего: операции проверяются вместе до первого изменения. При пересечении по времени
+    // или отсутствующей задаче бросается IllegalStateException, и состояние не меняется
+    List<BatchResult> commitTransaction(List<BatchOperation> operations);
 }
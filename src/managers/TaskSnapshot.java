@@ -0,0 +1,410 @@
+package managers;
+
+import models.EpicTask;
+import models.StatusEnum;
+import models.SubTask;
+import models.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Неизменяемый согласованный срез коллекций менеджера. Писатель после каждого изменения публикует
+// новый срез за O(log n), читатель берет текущий за O(1) и обходит его без блокировок сколько угодно долго.
+// Задачи в срезе — копии на момент публикации, доступные только для чтения. Срез отдает их как есть:
+// обход не создает объектов, а версия у них та же, что в кэше JSON. Изменяемые копии выдают
+// геттеры TaskManager
+public final class TaskSnapshot {
+    static final TaskSnapshot EMPTY = new TaskSnapshot(PersistentTree.empty(), PersistentTree.empty(),
+            PersistentTree.empty(), PersistentTree.empty(), PersistentTree.empty(),
+            StatusIndex.empty(), StatusIndex.empty(), 0, 0, 0);
+
+    // Эпик хранится без копий подзадач: его подзадачи — это дерево подзадач на момент публикации,
+    // а сама копия эпика собирается при первом чтении. Так изменение подзадачи не копирует весь эпик
+    private static final class EpicSlot {
+        final long id;
+        final String name;
+        final String description;
+        final StatusEnum status;
+        final long priority;
+        final PersistentTree<SubTask> subTasks;
+        private volatile EpicTask copy;
+
+        EpicSlot(EpicTask epic, PersistentTree<SubTask> subTasks) {
+            this.id = epic.getId();
+            this.name = epic.getName();
+            this.description = epic.getDescription();
+            this.status = epic.getStatus();
+            this.priority = priority(epic);
+            this.subTasks = subTasks;
+        }
+
+        // Общая для всех читателей копия, собирается один раз
+        EpicTask get() {
+            EpicTask epic = copy;
+            if (epic == null) {
+                EpicTask built = new EpicTask(name, description, status);
+                built.setId(id);
+                List<SubTask> list = built.getSubTasks();
+                subTasks.forEachAfter(id, Long.MIN_VALUE, subTask -> {
+                    if (subTask.getEpicId() != id) return false;
+                    list.add(subTask.copy());
+                    return true;
+                });
+                built.getVersion();
+                built.makeReadOnly();
+                copy = built;
+                epic = built;
+            }
+            return epic;
+        }
+    }
+
+    // Деревья id по статусам: размер дерева — готовый счетчик колонки доски. Статус, под которым
+    // задача лежит в индексе, запоминается при вставке и при замене берется оттуда, а не из задачи
+    private static final class StatusIndex<T extends Task> {
+        private static final StatusIndex<?> EMPTY = new StatusIndex<>(
+                new PersistentTree<?>[StatusEnum.values().length], PersistentTree.empty());
+
+        private final PersistentTree<?>[] byStatus;
+        private final PersistentTree<StatusEnum> statuses;
+
+        private StatusIndex(PersistentTree<?>[] byStatus, PersistentTree<StatusEnum> statuses) {
+            this.byStatus = byStatus;
+            this.statuses = statuses;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T extends Task> StatusIndex<T> empty() {
+            return (StatusIndex<T>) EMPTY;
+        }
+
+        PersistentTree<T> get(StatusEnum status) {
+            return tree(byStatus, status.ordinal());
+        }
+
+        // task — новая копия задачи id или null при удалении
+        StatusIndex<T> replace(long id, T task) {
+            StatusEnum indexed = statuses.get(id, 0);
+            StatusEnum status = task != null ? task.getStatus() : null;
+            if (indexed == null && status == null) return this;
+
+            PersistentTree<?>[] updated = byStatus.clone();
+            if (indexed != null) {
+                int i = indexed.ordinal();
+                updated[i] = tree(updated, i).remove(id, 0);
+            }
+            if (status != null) {
+                int i = status.ordinal();
+                updated[i] = tree(updated, i).put(id, 0, task);
+            }
+            return new StatusIndex<>(updated, status != null ? statuses.put(id, 0, status) : statuses.remove(id, 0));
+        }
+
+        @SuppressWarnings("unchecked")
+        private PersistentTree<T> tree(PersistentTree<?>[] trees, int i) {
+            PersistentTree<T> tree = (PersistentTree<T>) trees[i];
+            return tree != null ? tree : PersistentTree.empty();
+        }
+    }
+
+    private final PersistentTree<Task> tasks;
+    private final PersistentTree<EpicSlot> epics;
+    private final PersistentTree<SubTask> subTasks;
+    // Подзадачи по (epicId, id) — из этого дерева эпик берет свой список
+    private final PersistentTree<SubTask> epicSubTasks;
+    // Task или EpicSlot по (startTime, id)
+    private final PersistentTree<Object> prioritized;
+    private final StatusIndex<Task> tasksByStatus;
+    private final StatusIndex<SubTask> subTasksByStatus;
+    private final long tasksVersion;
+    private final long epicTasksVersion;
+    private final long subTasksVersion;
+
+    private TaskSnapshot(PersistentTree<Task> tasks, PersistentTree<EpicSlot> epics,
+                         PersistentTree<SubTask> subTasks, PersistentTree<SubTask> epicSubTasks,
+                         PersistentTree<Object> prioritized,
+                         StatusIndex<Task> tasksByStatus, StatusIndex<SubTask> subTasksByStatus,
+                         long tasksVersion, long epicTasksVersion, long subTasksVersion) {
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subTasks = subTasks;
+        this.epicSubTasks = epicSubTasks;
+        this.prioritized = prioritized;
+        this.tasksByStatus = tasksByStatus;
+        this.subTasksByStatus = subTasksByStatus;
+        this.tasksVersion = tasksVersion;
+        this.epicTasksVersion = epicTasksVersion;
+        this.subTasksVersion = subTasksVersion;
+    }
+
+    public Task getTask(long id) {
+        return tasks.get(id, 0);
+    }
+
+    public EpicTask getEpicTask(long id) {
+        EpicSlot slot = epics.get(id, 0);
+        return slot != null ? slot.get() : null;
+    }
+
+    public SubTask getSubTask(long id) {
+        return subTasks.get(id, 0);
+    }
+
+    // Опубликованная версия той же задачи (по типу и id) или null, если ее уже нет
+    public Task find(Task task) {
+        if (task instanceof EpicTask) {
+            return getEpicTask(task.getId());
+        } else if (task instanceof SubTask) {
+            return getSubTask(task.getId());
+        }
+        return getTask(task.getId());
+    }
+
+    public List<Task> getTasks() {
+        return tasks.toList();
+    }
+
+    public List<EpicTask> getEpicTasks() {
+        List<EpicTask> result = new ArrayList<>(epics.size());
+        epics.forEach(slot -> result.add(slot.get()));
+        return result;
+    }
+
+    public List<SubTask> getSubTasks() {
+        return subTasks.toList();
+    }
+
+    public List<SubTask> getSubTasks(long epicId) {
+        List<SubTask> result = new ArrayList<>();
+        epicSubTasks.forEachAfter(epicId, Long.MIN_VALUE, subTask -> {
+            if (subTask.getEpicId() != epicId) return false;
+            result.add(subTask);
+            return true;
+        });
+        return result;
+    }
+
+    public List<Task> getPrioritizedTasks() {
+        List<Task> result = new ArrayList<>(prioritized.size());
+        forEachPrioritizedTask(result::add);
+        return result;
+    }
+
+    public List<Task> getTasks(int limit, long after) {
+        return tasks.after(after, 0, limit);
+    }
+
+    public List<EpicTask> getEpicTasks(int limit, long after) {
+        List<EpicTask> result = new ArrayList<>(Math.min(limit, 1024));
+        for (EpicSlot slot : epics.after(after, 0, limit)) {
+            result.add(slot.get());
+        }
+        return result;
+    }
+
+    public List<SubTask> getSubTasks(int limit, long after) {
+        return subTasks.after(after, 0, limit);
+    }
+
+    // after — последняя задача предыдущей страницы, из нее берутся только startTime и id
+    public List<Task> getPrioritizedTasks(int limit, Task after) {
+        long key = after == null ? Long.MIN_VALUE : priority(after);
+        long tie = after == null ? Long.MIN_VALUE : after.getId();
+        List<Task> result = new ArrayList<>(Math.min(limit, 1024));
+        for (Object value : prioritized.after(key, tie, limit)) {
+            result.add(resolve(value));
+        }
+        return result;
+    }
+
+    public List<Task> getTasksByStatus(StatusEnum status) {
+        return tasksByStatus.get(status).toList();
+    }
+
+    public List<SubTask> getSubTasksByStatus(StatusEnum status) {
+        return subTasksByStatus.get(status).toList();
+    }
+
+    public List<Task> getTasksByStatus(StatusEnum status, int limit, long after) {
+        return tasksByStatus.get(status).after(after, 0, limit);
+    }
+
+    public List<SubTask> getSubTasksByStatus(StatusEnum status, int limit, long after) {
+        return subTasksByStatus.get(status).after(after, 0, limit);
+    }
+
+    // Задачи и подзадачи в статусе — карточки колонки доски; эпики не считаются, их статус производный
+    public int countByStatus(StatusEnum status) {
+        return tasksByStatus.get(status).size() + subTasksByStatus.get(status).size();
+    }
+
+    public void forEachTask(Consumer<? super Task> action) {
+        tasks.forEach(action);
+    }
+
+    public void forEachEpicTask(Consumer<? super EpicTask> action) {
+        epics.forEach(slot -> action.accept(slot.get()));
+    }
+
+    public void forEachSubTask(Consumer<? super SubTask> action) {
+        subTasks.forEach(action);
+    }
+
+    public void forEachPrioritizedTask(Consumer<? super Task> action) {
+        prioritized.forEach(value -> action.accept(resolve(value)));
+    }
+
+    public int size() {
+        return tasks.size() + epics.size() + subTasks.size();
+    }
+
+    public long getTasksVersion() {
+        return tasksVersion;
+    }
+
+    public long getEpicTasksVersion() {
+        return epicTasksVersion;
+    }
+
+    public long getSubTasksVersion() {
+        return subTasksVersion;
+    }
+
+    public long getPrioritizedVersion() {
+        return tasksVersion + epicTasksVersion + subTasksVersion;
+    }
+
+    TaskSnapshot withTask(Task task, boolean inPrioritized) {
+        Task copy = task.copy();
+        copy.makeReadOnly();
+        PersistentTree<Object> prio = prioritized;
+        Task old = tasks.get(copy.getId(), 0);
+        if (old != null) {
+            prio = prio.remove(priority(old), old.getId());
+        }
+        if (inPrioritized) {
+            prio = prio.put(priority(copy), copy.getId(), copy);
+        }
+        return new TaskSnapshot(tasks.put(copy.getId(), 0, copy), epics, subTasks, epicSubTasks, prio,
+                tasksByStatus.replace(copy.getId(), copy), subTasksByStatus, tasksVersion + 1, epicTasksVersion, subTasksVersion);
+    }
+
+    // attached — подзадача лежит в списке своего эпика. Агрегаты эпика после этого обновляет refreshEpicTask
+    TaskSnapshot withSubTask(SubTask subTask, boolean inPrioritized, boolean attached) {
+        SubTask copy = subTask.copy();
+        copy.makeReadOnly();
+        long id = copy.getId();
+        PersistentTree<SubTask> byEpic = epicSubTasks;
+        PersistentTree<Object> prio = prioritized;
+        SubTask old = subTasks.get(id, 0);
+        if (old != null) {
+            byEpic = byEpic.remove(old.getEpicId(), id);
+            prio = prio.remove(priority(old), id);
+        }
+        if (attached) {
+            byEpic = byEpic.put(copy.getEpicId(), id, copy);
+        }
+        if (inPrioritized) {
+            prio = prio.put(priority(copy), id, copy);
+        }
+        return new TaskSnapshot(tasks, epics, subTasks.put(id, 0, copy), byEpic, prio,
+                tasksByStatus, subTasksByStatus.replace(id, copy), tasksVersion, epicTasksVersion + 1,
+                subTasksVersion + 1);
+    }
+
+    TaskSnapshot withEpicTask(EpicTask epic, boolean inPrioritized) {
+        EpicSlot slot = new EpicSlot(epic, epicSubTasks);
+        PersistentTree<Object> prio = prioritized;
+        EpicSlot old = epics.get(slot.id, 0);
+        if (old != null) {
+            prio = prio.remove(old.priority, old.id);
+        }
+        if (inPrioritized) {
+            prio = prio.put(slot.priority, slot.id, slot);
+        }
+        return new TaskSnapshot(tasks, epics.put(slot.id, 0, slot), subTasks, epicSubTasks, prio,
+                tasksByStatus, subTasksByStatus, tasksVersion, epicTasksVersion + 1, subTasksVersion);
+    }
+
+    // Новые агрегаты эпика после изменения его подзадач; место в списке приоритета не меняется
+    TaskSnapshot refreshEpicTask(EpicTask epic) {
+        EpicSlot old = epics.get(epic.getId(), 0);
+        boolean inPrioritized = old != null && prioritized.get(old.priority, old.id) != null;
+        return withEpicTask(epic, inPrioritized);
+    }
+
+    TaskSnapshot withoutTask(long id) {
+        Task old = tasks.get(id, 0);
+        if (old == null) return this;
+
+        return new TaskSnapshot(tasks.remove(id, 0), epics, subTasks, epicSubTasks,
+                prioritized.remove(priority(old), id), tasksByStatus.replace(id, null), subTasksByStatus,
+                tasksVersion + 1, epicTasksVersion, subTasksVersion);
+    }
+
+    TaskSnapshot withoutSubTask(long id) {
+        SubTask old = subTasks.get(id, 0);
+        if (old == null) return this;
+
+        return new TaskSnapshot(tasks, epics, subTasks.remove(id, 0), epicSubTasks.remove(old.getEpicId(), id),
+                prioritized.remove(priority(old), id), tasksByStatus, subTasksByStatus.replace(id, null),
+                tasksVersion, epicTasksVersion + 1, subTasksVersion + 1);
+    }
+
+    // Подзадачи эпика вызывающий убирает сам через withoutSubTask
+    TaskSnapshot withoutEpicTask(long id) {
+        EpicSlot old = epics.get(id, 0);
+        if (old == null) return this;
+
+        return new TaskSnapshot(tasks, epics.remove(id, 0), subTasks, epicSubTasks,
+                prioritized.remove(old.priority, id), tasksByStatus, subTasksByStatus,
+                tasksVersion, epicTasksVersion + 1, subTasksVersion);
+    }
+
+    TaskSnapshot withoutTasks() {
+        PersistentTree<Object> prio = removeAll(prioritized, tasks);
+        return new TaskSnapshot(PersistentTree.empty(), epics, subTasks, epicSubTasks, prio,
+                StatusIndex.empty(), subTasksByStatus, tasksVersion + 1, epicTasksVersion, subTasksVersion);
+    }
+
+    TaskSnapshot withoutSubTasks() {
+        PersistentTree<Object> prio = removeAll(prioritized, subTasks);
+        return new TaskSnapshot(tasks, epics, PersistentTree.empty(), PersistentTree.empty(), prio,
+                tasksByStatus, StatusIndex.empty(), tasksVersion, epicTasksVersion + 1, subTasksVersion + 1);
+    }
+
+    TaskSnapshot withoutEpicTasks() {
+        PersistentTree<Object> prio = removeAll(prioritized, subTasks);
+        for (EpicSlot slot : epics.toList()) {
+            prio = prio.remove(slot.priority, slot.id);
+        }
+        return new TaskSnapshot(tasks, PersistentTree.empty(), PersistentTree.empty(), PersistentTree.empty(),
+                prio, tasksByStatus, StatusIndex.empty(), tasksVersion, epicTasksVersion + 1, subTasksVersion + 1);
+    }
+
+    // Пустой срез с версиями больше текущих — основа для полной пересборки
+    TaskSnapshot emptied() {
+        return new TaskSnapshot(PersistentTree.empty(), PersistentTree.empty(), PersistentTree.empty(),
+                PersistentTree.empty(), PersistentTree.empty(), StatusIndex.empty(), StatusIndex.empty(),
+                tasksVersion + 1, epicTasksVersion + 1, subTasksVersion + 1);
+    }
+
+    private static <T extends Task> PersistentTree<Object> removeAll(PersistentTree<Object> prio,
+                                                                     PersistentTree<T> removed) {
+        for (T task : removed.toList()) {
+            prio = prio.remove(priority(task), task.getId());
+        }
+        return prio;
+    }
+
+    private static Task resolve(Object value) {
+        return value instanceof EpicSlot ? ((EpicSlot) value).get() : (Task) value;
+    }
+
+    // Тот же порядок, что у InMemoryTaskManager.PRIORITY_ORDER: задачи без времени в конце
+    private static long priority(Task task) {
+        long start = task.getStartEpochMicros();
+        return start == Task.NO_TIME ? Long.MAX_VALUE : start;
+    }
+}
@@ -0,0 +1,59 @@
+package managers;
+
+import models.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Изменения копятся здесь и ничего не меняют до commit. commit применяет их все или ни одного:
+// при пересечении по времени или отсутствующей задаче бросается IllegalStateException
+public class TaskTransaction {
+    private final TaskManager manager;
+    private final List<BatchOperation> operations = new ArrayList<>();
+    private boolean finished;
+
+    TaskTransaction(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    public TaskTransaction add(Task task) {
+        return stage(BatchOperation.create(task));
+    }
+
+    // Для подзадачи с другим epicId это перенос в другой эпик
+    public TaskTransaction update(Task task) {
+        return stage(BatchOperation.update(task));
+    }
+
+    public TaskTransaction remove(BatchOperation.Target target, long id) {
+        return stage(BatchOperation.delete(target, id));
+    }
+
+    public TaskTransaction stage(BatchOperation operation) {
+        checkActive();
+        operations.add(operation);
+        return this;
+    }
+
+    public List<BatchOperation> getOperations() {
+        return List.copyOf(operations);
+    }
+
+    public List<BatchResult> commit() {
+        checkActive();
+        finished = true;
+        return manager.commitTransaction(operations);
+    }
+
+    public void rollback() {
+        checkActive();
+        finished = true;
+        operations.clear();
+    }
+
+    private void checkActive() {
+        if (finished) {
+            throw new IllegalStateException("Транзакция уже завершена");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package managers;
+
+import models.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+
+// Интервалы [start, end] задач с временем не пересекаются, поэтому отсортированы и по началу, и по концу.
+// Чтобы проверить пересечение, достаточно взять задачу с наибольшим началом, не превосходящим конец новой
+class TimeIntervalIndex {
+    static final Comparator<Task> ORDER =
+            Comparator.comparingLong(Task::getStartEpochMicros).thenComparingLong(Task::getId);
+
+    // Проверка пересечения идет на каждую вставку, поэтому пробная задача переиспользуется
+    private static final ThreadLocal<Probe> OVERLAP_PROBE = ThreadLocal.withInitial(Probe::new);
+
+    private final NavigableSet<Task> intervals;
+
+    TimeIntervalIndex(NavigableSet<Task> intervals) {
+        this.intervals = intervals;
+    }
+
+    void add(Task task) {
+        if (task.getStartEpochMicros() != Task.NO_TIME) {
+            intervals.add(task);
+        }
+    }
+
+    void remove(Task task) {
+        if (task.getStartEpochMicros() != Task.NO_TIME) {
+            intervals.remove(task);
+        }
+    }
+
+    void clear() {
+        intervals.clear();
+    }
+
+    // ignored — уже сохраненная версия обновляемой задачи, с собой она не пересекается
+    boolean hasOverlap(Task task, Task ignored) {
+        long start = task.getStartEpochMicros();
+        if (start == Task.NO_TIME) return false;
+
+        Task candidate = intervals.floor(OVERLAP_PROBE.get().at(endOf(task), Long.MAX_VALUE));
+        while (candidate != null && candidate == ignored) {
+            candidate = intervals.lower(candidate);
+        }
+        return candidate != null && endOf(candidate) >= start;
+    }
+
+    // Вариант для транзакции: ignored — сохраненные задачи, которые она удаляет или переносит.
+    // Оставшиеся интервалы по-прежнему не пересекаются, поэтому хватает ближайшего не пропущенного
+    boolean hasOverlapExcept(Task task, Set<Task> ignored) {
+        long start = task.getStartEpochMicros();
+        if (start == Task.NO_TIME) return false;
+
+        Task candidate = intervals.floor(OVERLAP_PROBE.get().at(endOf(task), Long.MAX_VALUE));
+        while (candidate != null && ignored.contains(candidate)) {
+            candidate = intervals.lower(candidate);
+        }
+        return candidate != null && endOf(candidate) >= start;
+    }
+
+    // Пересекаются ли задачи между собой, без учета индекса
+    static boolean hasMutualOverlap(List<Task> tasks) {
+        List<Task> timed = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (task.getStartEpochMicros() != Task.NO_TIME) {
+                timed.add(task);
+            }
+        }
+        timed.sort(Comparator.comparingLong(Task::getStartEpochMicros));
+
+        long maxEnd = Long.MIN_VALUE;
+        for (Task task : timed) {
+            if (task.getStartEpochMicros() <= maxEnd) {
+                return true;
+            }
+            maxEnd = Math.max(maxEnd, endOf(task));
+        }
+        return false;
+    }
+
+    List<Task> findOverlapping(LocalDateTime from, LocalDateTime to) {
+        long fromMicros = Task.toEpochMicros(from);
+        Probe lowerBound = new Probe().at(fromMicros, Long.MIN_VALUE);
+        Probe upperBound = new Probe().at(Task.toEpochMicros(to), Long.MAX_VALUE);
+
+        List<Task> result = new ArrayList<>();
+        Task lower = intervals.lower(lowerBound);
+        if (lower != null && endOf(lower) >= fromMicros) {
+            result.add(lower);
+        }
+        result.addAll(intervals.subSet(lowerBound, true, upperBound, true));
+        return result;
+    }
+
+    private static long endOf(Task task) {
+        long end = task.getEndEpochMicros();
+        return end != Task.NO_TIME ? end : task.getStartEpochMicros();
+    }
+
+    private static final class Probe extends Task {
+        private long startMicros;
+
+        Probe() {
+            super(null, null, null, null, null);
+        }
+
+        Probe at(long startMicros, long id) {
+            this.startMicros = startMicros;
+            setId(id);
+            return this;
+        }
+
+        @Override
+        public long getStartEpochMicros() {
+            return startMicros;
+        }
+    }
+}
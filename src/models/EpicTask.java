@@ -4,88 +4,99 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 public class EpicTask extends Task {
 
-    private List<SubTask> subTasks;
+    private final SubTaskList subTasks;
 
     public EpicTask(String name, String description, StatusEnum status) {
         super(name, description, status, null, null);
-        subTasks = new ArrayList<>();
+        subTasks = new SubTaskList();
     }
 
-    public void updateTime() {
-        if (subTasks.isEmpty()) {
-            setStartTime(null);
-            setDuration(null);
-            return;
+    // Подзадачи копируются тоже, версия списка сохраняется, поэтому и версия эпика та же
+    protected EpicTask(EpicTask source) {
+        super(source);
+        SubTaskList list = source.subTaskList();
+        List<SubTask> copies = new ArrayList<>(list.size());
+        for (SubTask subTask : list) {
+            copies.add(subTask.copy());
         }
+        subTasks = new SubTaskList(copies, list.getVersion());
+    }
 
-        LocalDateTime earliest = subTasks.stream()
-                .map(SubTask::getStartTime)
-                .filter(Objects::nonNull)
-                .min(LocalDateTime::compareTo)
-                .orElse(null);
+    @Override
+    public EpicTask copy() {
+        return new EpicTask(this);
+    }
 
-        Duration totalDuration = subTasks.stream()
-                .map(SubTask::getDuration)
-                .filter(Objects::nonNull)
-                .reduce(Duration.ZERO, Duration::plus);
+    // Вместе с эпиком только для чтения становятся его список и подзадачи в нем
+    @Override
+    public void makeReadOnly() {
+        super.makeReadOnly();
+        subTasks.makeReadOnly();
+    }
 
-        setStartTime(earliest);
-        setDuration(totalDuration);
+    public void updateTime() {
+        setStartTime(getStartTime());
+        setDuration(getDuration());
     }
 
 
     @Override
     public LocalDateTime getStartTime() {
-        if (subTasks.isEmpty()) return null;
-        return subTasks.stream()
-                .map(SubTask::getStartTime)
-                .filter(Objects::nonNull)
-                .min(LocalDateTime::compareTo)
-                .orElse(null);
+        SubTaskList list = subTaskList();
+        if (list.isEmpty()) return null;
+        return list.getStartTime();
     }
 
     @Override
     public Duration getDuration() {
-        if (subTasks.isEmpty()) return null;
-        return subTasks.stream()
-                .map(SubTask::getDuration)
-                .filter(Objects::nonNull)
-                .reduce(Duration.ZERO, Duration::plus);
+        SubTaskList list = subTaskList();
+        if (list.isEmpty()) return null;
+        return list.getTotalDuration();
     }
 
     @Override
     public LocalDateTime getEndTime() {
-        if (subTasks.isEmpty()) return null;
-        return subTasks.stream()
-                .map(SubTask::getEndTime)
-                .filter(Objects::nonNull)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
+        SubTaskList list = subTaskList();
+        if (list.isEmpty()) return null;
+        return list.getEndTime();
+    }
+
+    @Override
+    public long getStartEpochMicros() {
+        return toEpochMicros(getStartTime());
+    }
+
+    @Override
+    public long getEndEpochMicros() {
+        return toEpochMicros(getEndTime());
+    }
+
+    // JSON эпика зависит и от подзадач. Новая версия любого из двух всегда больше всех выданных раньше,
+    // поэтому максимум меняется при каждом изменении
+    @Override
+    public long getVersion() {
+        return Math.max(super.getVersion(), subTaskList().getVersion());
     }
 
     public void updateStatus() {
+        SubTaskList list = subTaskList();
         StatusEnum updatedStatus = StatusEnum.IN_PROGRESS;
-        if (subTasks.isEmpty()) return;
+        if (list.isEmpty()) return;
 
-        if (hasAllSubTasksStatus(StatusEnum.DONE)) updatedStatus =  StatusEnum.DONE;
+        if (list.countStatus(StatusEnum.DONE) == list.size()) updatedStatus = StatusEnum.DONE;
 
-        if (hasAllSubTasksStatus(StatusEnum.NEW)) updatedStatus = StatusEnum.NEW;
+        if (list.countStatus(StatusEnum.NEW) == list.size()) updatedStatus = StatusEnum.NEW;
         super.setStatus(updatedStatus);
     }
 
-    private boolean hasAllSubTasksStatus(StatusEnum statusEnum) {
-        for (SubTask subTask : subTasks) {
-            if (subTask.getStatus() != statusEnum) return false;
-        }
-
-        return true;
+    public List<SubTask> getSubTasks() {
+        return subTaskList();
     }
 
-    public List<SubTask> getSubTasks() {
+    private SubTaskList subTaskList() {
         return subTasks;
     }
 
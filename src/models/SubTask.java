@@ -5,6 +5,9 @@ import java.time.LocalDateTime;
 
 public class SubTask extends Task {
     private long epicId;
+    // Список эпика, агрегаты которого нужно поправить при изменении подзадачи, и сколько раз она в нем лежит
+    private transient SubTaskList owner;
+    private transient int links;
 
     public SubTask(String name, String description, StatusEnum status,
                    LocalDateTime startTime, Duration duration, long epicId) {
@@ -12,7 +15,82 @@ public class SubTask extends Task {
         this.epicId = epicId;
     }
 
+    protected SubTask(SubTask source) {
+        super(source);
+        this.epicId = source.epicId;
+    }
+
+    @Override
+    public SubTask copy() {
+        return new SubTask(this);
+    }
+
     public long getEpicId() {
         return epicId;
     }
+
+    // Перенос в другой эпик: из списка прежнего эпика подзадачу убирают до смены epicId
+    public void setEpicId(long epicId) {
+        checkWritable();
+        this.epicId = epicId;
+        invalidateVersion();
+    }
+
+    @Override
+    public void setStatus(StatusEnum status) {
+        beforeChange();
+        super.setStatus(status);
+        afterChange();
+    }
+
+    @Override
+    public void setStartTime(LocalDateTime startTime) {
+        beforeChange();
+        super.setStartTime(startTime);
+        afterChange();
+    }
+
+    @Override
+    public void setDuration(Duration duration) {
+        beforeChange();
+        super.setDuration(duration);
+        afterChange();
+    }
+
+    // id подзадачи входит в JSON эпика, поэтому его смена меняет и версию списка
+    @Override
+    public void setId(long id) {
+        super.setId(id);
+        if (owner != null) {
+            owner.touch();
+        }
+    }
+
+    void link(SubTaskList list) {
+        if (owner == list) {
+            links++;
+        } else {
+            owner = list;
+            links = 1;
+        }
+    }
+
+    void unlink(SubTaskList list) {
+        if (owner == list && --links == 0) {
+            owner = null;
+        }
+    }
+
+    private void beforeChange() {
+        checkWritable();
+        for (int i = 0; i < links; i++) {
+            owner.unindex(this);
+        }
+    }
+
+    private void afterChange() {
+        for (int i = 0; i < links; i++) {
+            owner.index(this);
+        }
+    }
 }
@@ -0,0 +1,168 @@
+package models;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+
+// Список подзадач эпика, который сам пересчитывает агрегаты при добавлении, удалении и изменении подзадач
+class SubTaskList extends AbstractList<SubTask> implements RandomAccess {
+    private final List<SubTask> subTasks = new ArrayList<>();
+    private final TreeMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> endTimes = new TreeMap<>();
+    private final int[] statusCounts = new int[StatusEnum.values().length];
+    private Duration totalDuration = Duration.ZERO;
+    // Версия состава и агрегатов, по тем же правилам, что и у Task
+    private long version;
+    private boolean readOnly;
+
+    SubTaskList() {
+    }
+
+    SubTaskList(Collection<SubTask> source, long version) {
+        addAll(source);
+        this.version = version;
+    }
+
+    @Override
+    public SubTask get(int index) {
+        return subTasks.get(index);
+    }
+
+    @Override
+    public int size() {
+        return subTasks.size();
+    }
+
+    @Override
+    public SubTask set(int index, SubTask subTask) {
+        checkWritable();
+        SubTask previous = subTasks.set(index, subTask);
+        detach(previous);
+        attach(subTask);
+        return previous;
+    }
+
+    @Override
+    public void add(int index, SubTask subTask) {
+        checkWritable();
+        subTasks.add(index, subTask);
+        modCount++;
+        attach(subTask);
+    }
+
+    @Override
+    public SubTask remove(int index) {
+        checkWritable();
+        SubTask removed = subTasks.remove(index);
+        modCount++;
+        detach(removed);
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        checkWritable();
+        for (SubTask subTask : subTasks) {
+            subTask.unlink(this);
+        }
+        subTasks.clear();
+        modCount++;
+        startTimes.clear();
+        endTimes.clear();
+        Arrays.fill(statusCounts, 0);
+        totalDuration = Duration.ZERO;
+        version = 0;
+    }
+
+    void makeReadOnly() {
+        readOnly = true;
+        for (SubTask subTask : subTasks) {
+            subTask.makeReadOnly();
+        }
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Список подзадач эпика из среза только для чтения");
+        }
+    }
+
+    LocalDateTime getStartTime() {
+        return startTimes.isEmpty() ? null : startTimes.firstKey();
+    }
+
+    LocalDateTime getEndTime() {
+        return endTimes.isEmpty() ? null : endTimes.lastKey();
+    }
+
+    Duration getTotalDuration() {
+        return totalDuration;
+    }
+
+    long getVersion() {
+        if (version == 0) {
+            version = Task.nextVersion();
+        }
+        return version;
+    }
+
+    void touch() {
+        version = 0;
+    }
+
+    int countStatus(StatusEnum status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    void index(SubTask subTask) {
+        if (subTask.getStatus() != null) {
+            statusCounts[subTask.getStatus().ordinal()]++;
+        }
+        if (subTask.getDuration() != null) {
+            totalDuration = totalDuration.plus(subTask.getDuration());
+        }
+        increment(startTimes, subTask.getStartTime());
+        increment(endTimes, subTask.getEndTime());
+        version = 0;
+    }
+
+    void unindex(SubTask subTask) {
+        if (subTask.getStatus() != null) {
+            statusCounts[subTask.getStatus().ordinal()]--;
+        }
+        if (subTask.getDuration() != null) {
+            totalDuration = totalDuration.minus(subTask.getDuration());
+        }
+        decrement(startTimes, subTask.getStartTime());
+        decrement(endTimes, subTask.getEndTime());
+        version = 0;
+    }
+
+    private void attach(SubTask subTask) {
+        subTask.link(this);
+        index(subTask);
+    }
+
+    private void detach(SubTask subTask) {
+        unindex(subTask);
+        subTask.unlink(this);
+    }
+
+    private static void increment(TreeMap<LocalDateTime, Integer> counts, LocalDateTime time) {
+        if (time != null) {
+            counts.merge(time, 1, Integer::sum);
+        }
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> counts, LocalDateTime time) {
+        if (time != null) {
+            counts.computeIfPresent(time, (key, count) -> count == 1 ? null : count - 1);
+        }
+    }
+}
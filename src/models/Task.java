@@ -2,51 +2,164 @@ package models;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Task {
+    public static final long NO_TIME = Long.MIN_VALUE;
+    private static final long MAX_EPOCH_SECOND = Long.MAX_VALUE / 1_000_000 - 1;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final AtomicLong versions = new AtomicLong();
 
     private long id;
     private String name;
     private String description;
     private StatusEnum status;
-    private Duration duration;
-    private LocalDateTime startTime;
+    // Время хранится примитивами: начало — секунды от эпохи (UTC) и наносекунды, NO_TIME без начала,
+    // продолжительность — наносекунды (до ~292 лет), NO_TIME без нее. LocalDateTime и Duration
+    // создаются только по запросу, а сравнения и проверка пересечений считают микросекунды арифметикой
+    private long startSecond = NO_TIME;
+    private int startNano;
+    private long durationNanos = NO_TIME;
+    // Версия для кэшей сериализации. Каждое изменение выдает новую из общего счетчика,
+    // поэтому пара (id, версия) не повторяется ни после изменений, ни у разных объектов
+    private transient volatile long version;
+    // Экземпляр из опубликованного среза делят все читатели, поэтому менять его нельзя
+    private transient boolean readOnly;
 
     public Task(String name, String description, StatusEnum status,
                 LocalDateTime startTime, Duration duration) {
         this.name = name;
         this.description = description;
         this.status = status;
-        this.startTime = startTime;
-        this.duration = duration;
+        storeStartTime(startTime);
+        storeDuration(duration);
+        this.version = nextVersion();
+    }
+
+    // Копия с той же версией: JSON у нее тот же, а изменения копии не трогают источник
+    protected Task(Task source) {
+        this.id = source.id;
+        this.name = source.name;
+        this.description = source.description;
+        this.status = source.status;
+        this.startSecond = source.startSecond;
+        this.startNano = source.startNano;
+        this.durationNanos = source.durationNanos;
+        this.version = source.getVersion();
+    }
+
+    public Task copy() {
+        return new Task(this);
+    }
+
+    // Копия через copy() снова изменяемая
+    public void makeReadOnly() {
+        readOnly = true;
+    }
+
+    protected void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Задача из среза только для чтения, изменять нужно ее копию");
+        }
     }
 
     public LocalDateTime getStartTime() {
-        return startTime;
+        return startSecond == NO_TIME ? null : LocalDateTime.ofEpochSecond(startSecond, startNano, ZoneOffset.UTC);
     }
 
     public void setStartTime(LocalDateTime startTime) {
-        this.startTime = startTime;
+        checkWritable();
+        storeStartTime(startTime);
+        version = nextVersion();
     }
 
     public Duration getDuration() {
-        return duration;
+        return durationNanos == NO_TIME ? null : Duration.ofNanos(durationNanos);
     }
 
     public void setDuration(Duration duration) {
-        this.duration = duration;
+        checkWritable();
+        storeDuration(duration);
+        version = nextVersion();
     }
 
     public LocalDateTime getEndTime() {
-        if (startTime == null || duration == null) {
+        if (startSecond == NO_TIME || durationNanos == NO_TIME) {
             return null;
         }
-        return startTime.plus(duration);
+        long nanos = startNano + durationNanos % NANOS_PER_SECOND;
+        return LocalDateTime.ofEpochSecond(endSecond(nanos), (int) Math.floorMod(nanos, NANOS_PER_SECOND),
+                ZoneOffset.UTC);
+    }
+
+    public long getStartEpochMicros() {
+        return startSecond == NO_TIME ? NO_TIME : toEpochMicros(startSecond, startNano);
+    }
+
+    // Без продолжительности конца нет — NO_TIME, как и null у getEndTime()
+    public long getEndEpochMicros() {
+        if (startSecond == NO_TIME || durationNanos == NO_TIME) {
+            return NO_TIME;
+        }
+        long nanos = startNano + durationNanos % NANOS_PER_SECOND;
+        return toEpochMicros(endSecond(nanos), (int) Math.floorMod(nanos, NANOS_PER_SECOND));
+    }
+
+    public static long toEpochMicros(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        return toEpochMicros(time.toEpochSecond(ZoneOffset.UTC), time.getNano());
+    }
+
+    private static long toEpochMicros(long seconds, int nano) {
+        if (seconds > MAX_EPOCH_SECOND) {
+            return Long.MAX_VALUE;
+        }
+        if (seconds < -MAX_EPOCH_SECOND) {
+            return NO_TIME + 1;
+        }
+        return seconds * 1_000_000 + nano / 1_000;
+    }
+
+    // nanos — наносекунды начала плюс дробная часть продолжительности, могут выйти за пределы секунды
+    private long endSecond(long nanos) {
+        return startSecond + durationNanos / NANOS_PER_SECOND + Math.floorDiv(nanos, NANOS_PER_SECOND);
+    }
+
+    private void storeStartTime(LocalDateTime startTime) {
+        if (startTime == null) {
+            startSecond = NO_TIME;
+            startNano = 0;
+        } else {
+            startSecond = startTime.toEpochSecond(ZoneOffset.UTC);
+            startNano = startTime.getNano();
+        }
+    }
+
+    private void storeDuration(Duration duration) {
+        durationNanos = duration == null ? NO_TIME : duration.toNanos();
+    }
+
+    // Для полей наследников, которые попадают в JSON
+    protected void invalidateVersion() {
+        version = nextVersion();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    static long nextVersion() {
+        return versions.incrementAndGet();
     }
 
     public void setId(long id) {
+        checkWritable();
         this.id = id;
+        invalidateVersion();
     }
 
     public long getId() {
@@ -58,7 +171,9 @@ public class Task {
     }
 
     public void setName(String name) {
+        checkWritable();
         this.name = name;
+        invalidateVersion();
     }
 
     public String getDescription() {
@@ -66,7 +181,9 @@ public class Task {
     }
 
     public void setDescription(String description) {
+        checkWritable();
         this.description = description;
+        invalidateVersion();
     }
 
     public StatusEnum getStatus() {
@@ -74,7 +191,9 @@ public class Task {
     }
 
     public void setStatus(StatusEnum status) {
+        checkWritable();
         this.status = status;
+        invalidateVersion();
     }
 
     @Override
@@ -84,8 +203,8 @@ public class Task {
                 ", name='" + name + '\'' +
                 ", description='" + description + '\'' +
                 ", status=" + status +
-                ", startTime=" + startTime +
-                ", duration=" + duration +
+                ", startTime=" + getStartTime() +
+                ", duration=" + getDuration() +
                 ", endTime=" + getEndTime() +
                 '}';
     }
@@ -101,6 +220,4 @@ public class Task {
     public int hashCode() {
         return Objects.hashCode(id);
     }
-
-
 }
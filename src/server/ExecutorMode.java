@@ -0,0 +1,7 @@
+package server;
+
+public enum ExecutorMode {
+    INLINE,
+    VIRTUAL_THREADS,
+    PLATFORM_POOL
+}
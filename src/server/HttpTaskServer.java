@@ -1,39 +1,130 @@
 package server;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import managers.Managers;
 import managers.TaskManager;
+import models.EpicTask;
+import models.SubTask;
+import models.Task;
+import server.adapters.*;
 import server.handlers.*;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class HttpTaskServer {
-    private static final int PORT = 8080;
+    private static final int POOL_QUEUE_PER_THREAD = 64;
+    // Gson потокобезопасен, поэтому один экземпляр с адаптерами моделей общий для всех обработчиков
+    private static final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(Duration.class, new DurationAdapter())
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(Task.class, new TaskAdapter())
+            .registerTypeAdapter(EpicTask.class, new EpicTaskAdapter())
+            .registerTypeAdapter(SubTask.class, new SubTaskAdapter())
+            .create();
+
     private final HttpServer httpServer;
+    private final ServerConfig config;
+    private final ExecutorService executor;
+    private final RequestTracker tracker = new RequestTracker();
+    private final OverloadRejectionHandler overload = new OverloadRejectionHandler();
+    private final JsonCache jsonCache;
 
     public HttpTaskServer(TaskManager taskManager) throws IOException {
-        this.httpServer = HttpServer.create(new InetSocketAddress(PORT), 0);
+        this(taskManager, ServerConfig.DEFAULT);
+    }
+
+    public HttpTaskServer(TaskManager taskManager, ServerConfig config) throws IOException {
+        this.config = config;
+        this.httpServer = HttpServer.create(new InetSocketAddress(config.getPort()), config.getBacklog());
+        this.executor = createExecutor(config, overload);
+        httpServer.setExecutor(executor);
+        this.jsonCache = new JsonCache(gson, config.getJsonCacheBytes());
 
-        httpServer.createContext("/tasks", new TasksHandler(taskManager));
-        httpServer.createContext("/epics", new EpicsHandler(taskManager));
-        httpServer.createContext("/subtasks", new SubtasksHandler(taskManager));
-        httpServer.createContext("/history", new HistoryHandler(taskManager));
-        httpServer.createContext("/prioritized", new PrioritizedHandler(taskManager));
+        addContext("/tasks", new TasksHandler(taskManager, jsonCache));
+        addContext("/epics", new EpicsHandler(taskManager, jsonCache));
+        addContext("/subtasks", new SubtasksHandler(taskManager, jsonCache));
+        addContext("/history", new HistoryHandler(taskManager, jsonCache));
+        addContext("/prioritized", new PrioritizedHandler(taskManager, jsonCache));
+        addContext("/batch", new BatchHandler(taskManager));
+    }
+
+    public static Gson getGson() {
+        return gson;
+    }
+
+    public JsonCache getJsonCache() {
+        return jsonCache;
+    }
+
+    private void addContext(String path, HttpHandler handler) {
+        HttpContext context = httpServer.createContext(path, handler);
+        context.getFilters().add(tracker);
+        context.getAttributes().put(BaseHttpHandler.GZIP_MIN_BYTES_ATTRIBUTE, config.getGzipMinBytes());
     }
 
     public void start() {
-        System.out.println("Starting server on port " + PORT);
+        System.out.println("Starting server on port " + config.getPort());
         httpServer.start();
     }
 
+    // Начатые запросы дорабатывают, пока не истечет таймаут, новые получают 503
     public void stop() {
         System.out.println("Stopping server");
+        long timeout = config.getShutdownTimeout().toMillis();
+        try {
+            if (!tracker.drain(timeout)) {
+                System.err.println("Не все запросы завершились за " + timeout + " мс");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
         httpServer.stop(0);
+        overload.shutdown();
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static ExecutorService createExecutor(ServerConfig config, OverloadRejectionHandler overload) {
+        switch (config.getExecutorMode()) {
+            case VIRTUAL_THREADS:
+                return Executors.newVirtualThreadPerTaskExecutor();
+            case PLATFORM_POOL:
+                return new ThreadPoolExecutor(config.getPoolSize(), config.getPoolSize(),
+                        0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(config.getPoolSize() * POOL_QUEUE_PER_THREAD),
+                        overload);
+            default:
+                return null;
+        }
     }
 
     public static void main(String[] args) throws IOException {
-        HttpTaskServer server = new HttpTaskServer(Managers.getDefault());
+        ServerConfig config = ServerConfig.fromSystemProperties();
+        // Вне INLINE обработчики работают в нескольких потоках, и менеджер нужен потокобезопасный
+        TaskManager taskManager = config.getExecutorMode() == ExecutorMode.INLINE
+                ? Managers.getDefault() : Managers.getConcurrentDefault();
+        HttpTaskServer server = new HttpTaskServer(taskManager, config);
         server.start();
     }
 }
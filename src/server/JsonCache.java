@@ -0,0 +1,136 @@
+package server;
+
+import com.google.gson.Gson;
+import managers.LongHashMap;
+import managers.LongMap;
+import models.Task;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+// Кэш JSON задач в байтах по id. Запись годится, пока версия задачи не изменилась.
+// Объем ограничен суммарной длиной JSON, при переполнении вытесняются давно не читанные записи
+public class JsonCache {
+
+    private static class Entry {
+        final long id;
+        final long version;
+        final byte[] json;
+        Entry prev;
+        Entry next;
+
+        Entry(long id, long version, byte[] json) {
+            this.id = id;
+            this.version = version;
+            this.json = json;
+        }
+    }
+
+    private final Gson gson;
+    private final long maxBytes;
+    private final LongMap<Entry> entries = new LongHashMap<>();
+    // От давно прочитанных к недавним
+    private Entry first;
+    private Entry last;
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public JsonCache(Gson gson, long maxBytes) {
+        this.gson = gson;
+        this.maxBytes = maxBytes;
+    }
+
+    // Сериализация идет вне блокировки: параллельные промахи по одной задаче просто посчитают ее дважды
+    public byte[] toJson(Task task) {
+        long id = task.getId();
+        long version = task.getVersion();
+        if (maxBytes > 0) {
+            synchronized (this) {
+                Entry entry = entries.get(id);
+                if (entry != null && entry.version == version) {
+                    moveToLast(entry);
+                    hits.increment();
+                    return entry.json;
+                }
+            }
+        }
+        misses.increment();
+        byte[] json = gson.toJson(task, task.getClass()).getBytes(StandardCharsets.UTF_8);
+        if (json.length <= maxBytes) {
+            put(new Entry(id, version, json));
+        }
+        return json;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    private synchronized void put(Entry entry) {
+        Entry previous = entries.put(entry.id, entry);
+        if (previous != null) {
+            unlink(previous);
+        }
+        linkLast(entry);
+        while (bytes > maxBytes) {
+            Entry eldest = first;
+            entries.remove(eldest.id);
+            unlink(eldest);
+            evictions.increment();
+        }
+    }
+
+    private void moveToLast(Entry entry) {
+        if (entry != last) {
+            unlink(entry);
+            linkLast(entry);
+        }
+    }
+
+    private void linkLast(Entry entry) {
+        entry.prev = last;
+        entry.next = null;
+        if (last == null) {
+            first = entry;
+        } else {
+            last.next = entry;
+        }
+        last = entry;
+        bytes += entry.json.length;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev == null) {
+            first = entry.next;
+        } else {
+            entry.prev.next = entry.next;
+        }
+        if (entry.next == null) {
+            last = entry.prev;
+        } else {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+        bytes -= entry.json.length;
+    }
+}
@@ -0,0 +1,50 @@
+package server;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Запрос, не поместившийся в очередь пула, нельзя выполнять в потоке диспетчера HttpServer:
+// пока он работает, новые соединения не принимаются. Такой запрос уходит в отдельный поток,
+// где RequestTracker сразу отвечает 503, не вызывая обработчик. Если переполнен и этот поток,
+// исключение доходит до диспетчера, и тот просто закрывает соединение
+class OverloadRejectionHandler implements RejectedExecutionHandler {
+    private static final int QUEUE_SIZE = 256;
+    private static final ThreadLocal<Boolean> REJECTING = new ThreadLocal<>();
+
+    private final ThreadPoolExecutor rejector = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_SIZE), runnable -> {
+                Thread thread = new Thread(runnable, "http-overload");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    OverloadRejectionHandler() {
+        rejector.allowCoreThreadTimeOut(true);
+    }
+
+    static boolean isRejecting() {
+        return REJECTING.get() != null;
+    }
+
+    @Override
+    public void rejectedExecution(Runnable request, ThreadPoolExecutor pool) {
+        if (pool.isShutdown()) {
+            throw new RejectedExecutionException("Пул обработчиков остановлен");
+        }
+        rejector.execute(() -> {
+            REJECTING.set(Boolean.TRUE);
+            try {
+                request.run();
+            } finally {
+                REJECTING.remove();
+            }
+        });
+    }
+
+    void shutdown() {
+        rejector.shutdown();
+    }
+}
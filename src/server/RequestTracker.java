@@ -0,0 +1,56 @@
+package server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+
+class RequestTracker extends Filter {
+    private final Object lock = new Object();
+    private int inFlight;
+    private boolean draining;
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        synchronized (lock) {
+            if (draining || OverloadRejectionHandler.isRejecting()) {
+                exchange.getResponseHeaders().set("Connection", "close");
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            inFlight++;
+        }
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            synchronized (lock) {
+                inFlight--;
+                if (inFlight == 0) {
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Отслеживает выполняющиеся запросы для плавной остановки сервера";
+    }
+
+    // Новые запросы получают 503, метод ждет завершения уже начатых
+    boolean drain(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (lock) {
+            draining = true;
+            while (inFlight > 0) {
+                long left = deadline - System.currentTimeMillis();
+                if (left <= 0) {
+                    return false;
+                }
+                lock.wait(left);
+            }
+            return true;
+        }
+    }
+}
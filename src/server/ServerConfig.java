@@ -0,0 +1,81 @@
+package server;
+
+import java.time.Duration;
+
+public class ServerConfig {
+    public static final long DEFAULT_JSON_CACHE_BYTES = 16L * 1024 * 1024;
+    public static final int DEFAULT_GZIP_MIN_BYTES = 1024;
+    public static final ServerConfig DEFAULT =
+            new ServerConfig(8080, 0, ExecutorMode.INLINE, 0, Duration.ofSeconds(5));
+
+    private final int port;
+    private final int backlog;
+    private final ExecutorMode executorMode;
+    private final int poolSize;
+    private final Duration shutdownTimeout;
+    private final long jsonCacheBytes;
+    private final int gzipMinBytes;
+
+    public ServerConfig(int port, int backlog, ExecutorMode executorMode, int poolSize, Duration shutdownTimeout) {
+        this(port, backlog, executorMode, poolSize, shutdownTimeout, DEFAULT_JSON_CACHE_BYTES);
+    }
+
+    public ServerConfig(int port, int backlog, ExecutorMode executorMode, int poolSize, Duration shutdownTimeout,
+                        long jsonCacheBytes) {
+        this(port, backlog, executorMode, poolSize, shutdownTimeout, jsonCacheBytes, DEFAULT_GZIP_MIN_BYTES);
+    }
+
+    // jsonCacheBytes — предел суммарной длины закэшированного JSON задач, 0 отключает кэш.
+    // gzipMinBytes — ответы не короче этого размера сжимаются для клиентов с Accept-Encoding: gzip,
+    // отрицательное значение отключает сжатие
+    public ServerConfig(int port, int backlog, ExecutorMode executorMode, int poolSize, Duration shutdownTimeout,
+                        long jsonCacheBytes, int gzipMinBytes) {
+        this.port = port;
+        this.backlog = backlog;
+        this.executorMode = executorMode;
+        this.poolSize = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.shutdownTimeout = shutdownTimeout;
+        this.jsonCacheBytes = jsonCacheBytes;
+        this.gzipMinBytes = gzipMinBytes;
+    }
+
+    public static ServerConfig fromSystemProperties() {
+        return new ServerConfig(
+                Integer.getInteger("kanban.server.port", DEFAULT.port),
+                Integer.getInteger("kanban.server.backlog", DEFAULT.backlog),
+                ExecutorMode.valueOf(System.getProperty("kanban.server.executor", DEFAULT.executorMode.name())),
+                Integer.getInteger("kanban.server.poolSize", 0),
+                Duration.ofSeconds(Long.getLong("kanban.server.shutdownTimeoutSeconds",
+                        DEFAULT.shutdownTimeout.toSeconds())),
+                Long.getLong("kanban.server.jsonCacheBytes", DEFAULT.jsonCacheBytes),
+                Integer.getInteger("kanban.server.gzipMinBytes", DEFAULT.gzipMinBytes));
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public ExecutorMode getExecutorMode() {
+        return executorMode;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public long getJsonCacheBytes() {
+        return jsonCacheBytes;
+    }
+
+    public int getGzipMinBytes() {
+        return gzipMinBytes;
+    }
+}
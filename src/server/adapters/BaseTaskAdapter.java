@@ -0,0 +1,115 @@
+package server.adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import models.StatusEnum;
+import models.Task;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Поля задачи пишутся и читаются напрямую из потока, без рефлексии и промежуточных JsonElement.
+// null-поля, как и раньше, в ответ не попадают: JsonWriter пропускает их при выключенном serializeNulls
+abstract class BaseTaskAdapter<T extends Task> extends TypeAdapter<T> {
+    private static final DurationAdapter durationAdapter = new DurationAdapter();
+    private static final LocalDateTimeAdapter dateTimeAdapter = new LocalDateTimeAdapter();
+
+    protected static class Fields {
+        long id;
+        String name;
+        String description;
+        StatusEnum status;
+        Duration duration;
+        LocalDateTime startTime;
+        long epicId;
+    }
+
+    protected abstract T create(Fields fields);
+
+    protected void writeExtra(JsonWriter out, T task) throws IOException {
+    }
+
+    @Override
+    public void write(JsonWriter out, T task) throws IOException {
+        if (task == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(task.getId());
+        out.name("name").value(task.getName());
+        out.name("description").value(task.getDescription());
+        StatusEnum status = task.getStatus();
+        out.name("status").value(status == null ? null : status.name());
+        out.name("duration");
+        durationAdapter.write(out, task.getDuration());
+        out.name("startTime");
+        dateTimeAdapter.write(out, task.getStartTime());
+        writeExtra(out, task);
+        out.endObject();
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Fields fields = new Fields();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    fields.id = in.nextLong();
+                    break;
+                case "name":
+                    fields.name = nextString(in);
+                    break;
+                case "description":
+                    fields.description = nextString(in);
+                    break;
+                case "status":
+                    fields.status = toStatus(nextString(in));
+                    break;
+                case "duration":
+                    fields.duration = durationAdapter.read(in);
+                    break;
+                case "startTime":
+                    fields.startTime = dateTimeAdapter.read(in);
+                    break;
+                case "epicId":
+                    fields.epicId = in.nextLong();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        T task = create(fields);
+        task.setId(fields.id);
+        return task;
+    }
+
+    private static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    // Неизвестный статус, как и у стандартного адаптера перечислений, читается как null
+    private static StatusEnum toStatus(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return StatusEnum.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
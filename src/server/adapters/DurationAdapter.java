@@ -1,18 +1,29 @@
 package server.adapters;
 
-import com.google.gson.*;
-import java.lang.reflect.Type;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.time.Duration;
 
-public class DurationAdapter implements JsonSerializer<Duration>, JsonDeserializer<Duration> {
+public class DurationAdapter extends TypeAdapter<Duration> {
     @Override
-    public JsonElement serialize(Duration duration, Type type, JsonSerializationContext context) {
-        return new JsonPrimitive(duration.toMinutes());
+    public void write(JsonWriter out, Duration duration) throws IOException {
+        if (duration == null) {
+            out.nullValue();
+            return;
+        }
+        out.value(duration.toMinutes());
     }
 
     @Override
-    public Duration deserialize(JsonElement json, Type type, JsonDeserializationContext context)
-            throws JsonParseException {
-        return Duration.ofMinutes(json.getAsLong());
+    public Duration read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return Duration.ofMinutes(in.nextLong());
     }
 }
@@ -0,0 +1,25 @@
+package server.adapters;
+
+import com.google.gson.stream.JsonWriter;
+import models.EpicTask;
+import models.SubTask;
+
+import java.io.IOException;
+
+// Подзадачи эпика отдаются списком id, сами подзадачи доступны через /subtasks.
+// Время и продолжительность эпика вычисляются по подзадачам, поэтому при чтении не используются
+public class EpicTaskAdapter extends BaseTaskAdapter<EpicTask> {
+    @Override
+    protected EpicTask create(Fields fields) {
+        return new EpicTask(fields.name, fields.description, fields.status);
+    }
+
+    @Override
+    protected void writeExtra(JsonWriter out, EpicTask epicTask) throws IOException {
+        out.name("subTaskIds").beginArray();
+        for (SubTask subTask : epicTask.getSubTasks()) {
+            out.value(subTask.getId());
+        }
+        out.endArray();
+    }
+}
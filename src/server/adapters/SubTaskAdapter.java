@@ -0,0 +1,19 @@
+package server.adapters;
+
+import com.google.gson.stream.JsonWriter;
+import models.SubTask;
+
+import java.io.IOException;
+
+public class SubTaskAdapter extends BaseTaskAdapter<SubTask> {
+    @Override
+    protected SubTask create(Fields fields) {
+        return new SubTask(fields.name, fields.description, fields.status,
+                fields.startTime, fields.duration, fields.epicId);
+    }
+
+    @Override
+    protected void writeExtra(JsonWriter out, SubTask subTask) throws IOException {
+        out.name("epicId").value(subTask.getEpicId());
+    }
+}
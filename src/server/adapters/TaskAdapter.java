@@ -0,0 +1,10 @@
+package server.adapters;
+
+import models.Task;
+
+public class TaskAdapter extends BaseTaskAdapter<Task> {
+    @Override
+    protected Task create(Fields fields) {
+        return new Task(fields.name, fields.description, fields.status, fields.startTime, fields.duration);
+    }
+}
@@ -1,17 +1,40 @@
 package server.handlers;
 
 import com.sun.net.httpserver.HttpExchange;
+import models.StatusEnum;
+import models.Task;
+import server.JsonCache;
+
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 public class BaseHttpHandler {
+    // Атрибут контекста с порогом сжатия в байтах; без него или с отрицательным значением ответы не сжимаются
+    public static final String GZIP_MIN_BYTES_ATTRIBUTE = "gzipMinBytes";
+    protected static final int DEFAULT_PAGE_SIZE = 20;
+    protected static final int MAX_PAGE_SIZE = 1000;
+
+    // Счетчики менеджера начинаются заново после перезапуска, поэтому в тег входит случайная метка обработчика
+    private final String etagPrefix = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
     protected void sendText(HttpExchange exchange, String text, int statusCode) throws IOException {
-        byte[] response = text.getBytes(StandardCharsets.UTF_8);
+        sendJson(exchange, text.getBytes(StandardCharsets.UTF_8), statusCode);
+    }
+
+    protected void sendJson(HttpExchange exchange, byte[] response, int statusCode) throws IOException {
         exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        exchange.sendResponseHeaders(statusCode, response.length);
-        try (OutputStream os = exchange.getResponseBody()) {
+        try (OutputStream os = openBody(exchange, statusCode, response.length)) {
             os.write(response);
         }
     }
@@ -20,10 +43,160 @@ public class BaseHttpHandler {
         sendText(exchange, text, 200);
     }
 
+    protected void sendTask(HttpExchange exchange, JsonCache jsonCache, Task task) throws IOException {
+        sendJson(exchange, jsonCache.toJson(task), 200);
+    }
+
+    // Массив собирается из готового JSON задач и пишется в тело по мере обхода source:
+    // длина заранее неизвестна, поэтому ответ идет чанками, без промежуточной строки и массива байт
+    protected void sendJsonArray(HttpExchange exchange, JsonCache jsonCache, Consumer<Consumer<Task>> source)
+            throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        try (OutputStream os = new BufferedOutputStream(openStreamingBody(exchange, 200))) {
+            os.write('[');
+            boolean[] first = {true};
+            try {
+                source.accept(task -> {
+                    try {
+                        if (!first[0]) {
+                            os.write(',');
+                        }
+                        first[0] = false;
+                        os.write(jsonCache.toJson(task));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            os.write(']');
+        }
+    }
+
     protected void sendCreated(HttpExchange exchange, String text) throws IOException {
         sendText(exchange, text, 201);
     }
 
+    // Курсор следующей страницы передается в заголовке, тело остается массивом.
+    // Страница ограничена limit, поэтому длина считается заранее и ответ идет одним куском
+    protected void sendPage(HttpExchange exchange, JsonCache jsonCache, List<? extends Task> page, String nextCursor)
+            throws IOException {
+        if (nextCursor != null) {
+            exchange.getResponseHeaders().set("X-Next-Cursor", nextCursor);
+        }
+        byte[][] fragments = new byte[page.size()][];
+        int length = 2 + Math.max(page.size() - 1, 0);
+        for (int i = 0; i < fragments.length; i++) {
+            fragments[i] = jsonCache.toJson(page.get(i));
+            length += fragments[i].length;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        try (OutputStream os = openBody(exchange, 200, length)) {
+            os.write('[');
+            for (int i = 0; i < fragments.length; i++) {
+                if (i > 0) {
+                    os.write(',');
+                }
+                os.write(fragments[i]);
+            }
+            os.write(']');
+        }
+    }
+
+    // Отправляет заголовки ответа известной длины и возвращает поток тела, сжатый, если клиент
+    // принимает gzip и тело не короче порога. Сжатый ответ идет чанками: длина после сжатия заранее неизвестна
+    private OutputStream openBody(HttpExchange exchange, int statusCode, long length) throws IOException {
+        int minBytes = gzipMinBytes(exchange);
+        if (minBytes >= 0 && length >= minBytes && acceptsGzip(exchange)) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(statusCode, 0);
+            return new PooledGzipOutputStream(exchange.getResponseBody());
+        }
+        exchange.sendResponseHeaders(statusCode, length);
+        return exchange.getResponseBody();
+    }
+
+    // То же для тела заранее неизвестной длины: решение о сжатии откладывается, пока не набран порог
+    private OutputStream openStreamingBody(HttpExchange exchange, int statusCode) throws IOException {
+        int minBytes = gzipMinBytes(exchange);
+        if (minBytes >= 0 && acceptsGzip(exchange)) {
+            return new GzipResponseStream(exchange, statusCode, minBytes);
+        }
+        exchange.sendResponseHeaders(statusCode, 0);
+        return exchange.getResponseBody();
+    }
+
+    private static int gzipMinBytes(HttpExchange exchange) {
+        Object value = exchange.getHttpContext().getAttributes().get(GZIP_MIN_BYTES_ATTRIBUTE);
+        if (!(value instanceof Integer minBytes) || minBytes < 0) {
+            return -1;
+        }
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        return minBytes;
+    }
+
+    // gzip подходит, если он или * перечислен в Accept-Encoding без q=0
+    private static boolean acceptsGzip(HttpExchange exchange) {
+        List<String> values = exchange.getRequestHeaders().get("Accept-Encoding");
+        if (values == null) {
+            return false;
+        }
+        for (String value : values) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.split(";");
+                String name = parts[0].trim();
+                if ((name.equalsIgnoreCase("gzip") || name.equals("*")) && quality(parts) > 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    // ETag списка строится из счетчика изменений коллекции. Счетчик нужно читать до данных:
+    // если коллекция изменится во время ответа, тег просто не совпадет при следующем опросе.
+    // Тег слабый: сжатый и несжатый ответы с одними данными считаются одинаковыми.
+    // Возвращает true, если клиенту уже отправлен 304
+    protected boolean sendNotModified(HttpExchange exchange, long version) throws IOException {
+        String etag = "\"" + etagPrefix + "-" + Long.toHexString(version) + "\"";
+        exchange.getResponseHeaders().set("ETag", "W/" + etag);
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null || !matchesEtag(ifNoneMatch, etag)) {
+            return false;
+        }
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+        return true;
+    }
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     protected void sendNotFound(HttpExchange exchange) throws IOException {
         String response = "{\"message\":\"Not Found\"}";
         sendText(exchange, response, 404);
@@ -34,11 +207,79 @@ public class BaseHttpHandler {
         sendText(exchange, response, 406);
     }
 
+    protected void sendBadRequest(HttpExchange exchange, String message) throws IOException {
+        String response = "{\"message\":\"" + message + "\"}";
+        sendText(exchange, response, 400);
+    }
+
     protected void sendInternalError(HttpExchange exchange) throws IOException {
         String response = "{\"message\":\"Internal Server Error\"}";
         sendText(exchange, response, 500);
     }
 
+    protected Map<String, String> parseQuery(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator >= 0 ? pair.substring(0, separator) : pair;
+            String value = separator >= 0 ? pair.substring(separator + 1) : "";
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    protected boolean isPageRequest(Map<String, String> query) {
+        return query.containsKey("limit") || query.containsKey("after");
+    }
+
+    protected int parseLimit(Map<String, String> query) {
+        if (!query.containsKey("limit")) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        int limit;
+        try {
+            limit = Integer.parseInt(query.get("limit"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("limit должен быть числом");
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    // Курсор списков — id последней задачи страницы, без него чтение идет с начала
+    protected long parseAfterId(Map<String, String> query) {
+        if (!query.containsKey("after")) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(query.get("after"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("after должен быть числом");
+        }
+    }
+
+    // Фильтр списков по статусу; null — без фильтра
+    protected StatusEnum parseStatus(Map<String, String> query) {
+        if (!query.containsKey("status")) {
+            return null;
+        }
+        try {
+            return StatusEnum.valueOf(query.get("status").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("status должен быть одним из " + Arrays.toString(StatusEnum.values()));
+        }
+    }
+
+    protected String nextIdCursor(List<? extends Task> page, int limit) {
+        return page.size() == limit ? String.valueOf(page.getLast().getId()) : null;
+    }
+
     protected String readRequestBody(HttpExchange exchange) throws IOException {
         try (InputStream inputStream = exchange.getRequestBody()) {
             return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
@@ -0,0 +1,194 @@
+package server.handlers;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import managers.BatchOperation;
+import managers.BatchResult;
+import managers.TaskManager;
+import models.EpicTask;
+import models.SubTask;
+import models.Task;
+import server.HttpTaskServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// POST /batch принимает JSON-массив или NDJSON (по операции в строке):
+// {"op":"create","type":"task","task":{...}}, {"op":"update","type":"epic","task":{"id":1,...}},
+// {"op":"delete","type":"subtask","id":3}. Ответ — массив результатов в порядке операций.
+// С ?atomic=true пакет применяется транзакцией: при конфликте ничего не меняется и приходит 406
+public class BatchHandler extends BaseHttpHandler implements HttpHandler {
+    private static final int MAX_BATCH_SIZE = 10_000;
+
+    private final TaskManager taskManager;
+    private final Gson gson;
+
+    public BatchHandler(TaskManager taskManager) {
+        this.taskManager = taskManager;
+        this.gson = HttpTaskServer.getGson();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendNotFound(exchange);
+                return;
+            }
+            List<BatchOperation> operations;
+            try {
+                operations = readOperations(exchange);
+            } catch (IllegalArgumentException e) {
+                sendBadRequest(exchange, e.getMessage());
+                return;
+            } catch (IllegalStateException | JsonParseException e) {
+                sendBadRequest(exchange, "Некорректный JSON пакета");
+                return;
+            }
+            List<BatchResult> results;
+            if ("true".equals(parseQuery(exchange).get("atomic"))) {
+                try {
+                    results = taskManager.commitTransaction(operations);
+                } catch (IllegalStateException e) {
+                    sendNotAcceptable(exchange, e.getMessage());
+                    return;
+                }
+            } else {
+                results = taskManager.applyBatch(operations);
+            }
+            sendSuccess(exchange, toJson(results));
+        } catch (Exception e) {
+            System.err.println(Arrays.toString(e.getStackTrace()));
+            sendInternalError(exchange);
+        }
+    }
+
+    private List<BatchOperation> readOperations(HttpExchange exchange) throws IOException {
+        List<BatchOperation> operations = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            if (firstSignificantChar(reader) == '[') {
+                JsonReader json = gson.newJsonReader(reader);
+                json.beginArray();
+                while (json.hasNext()) {
+                    addOperation(operations, gson.fromJson(json, JsonObject.class));
+                }
+                json.endArray();
+            } else {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        addOperation(operations, gson.fromJson(line, JsonObject.class));
+                    }
+                }
+            }
+        }
+        return operations;
+    }
+
+    private static int firstSignificantChar(BufferedReader reader) throws IOException {
+        int c;
+        do {
+            reader.mark(1);
+            c = reader.read();
+        } while (c != -1 && Character.isWhitespace(c));
+        reader.reset();
+        return c;
+    }
+
+    private void addOperation(List<BatchOperation> operations, JsonObject json) {
+        if (operations.size() == MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("В пакете не больше " + MAX_BATCH_SIZE + " операций");
+        }
+        try {
+            operations.add(parseOperation(json));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Операция " + operations.size() + ": " + e.getMessage());
+        } catch (IllegalStateException | UnsupportedOperationException | JsonParseException e) {
+            throw new IllegalArgumentException("Операция " + operations.size() + ": некорректные поля");
+        }
+    }
+
+    private BatchOperation parseOperation(JsonObject json) {
+        String op = requireString(json, "op");
+        BatchOperation.Target target = parseTarget(requireString(json, "type"));
+        switch (op) {
+            case "create":
+                return BatchOperation.create(parseTask(json, target));
+            case "update":
+                return BatchOperation.update(parseTask(json, target));
+            case "delete":
+                JsonElement id = json.get("id");
+                if (id == null || id.isJsonNull()) {
+                    throw new IllegalArgumentException("нет id");
+                }
+                return BatchOperation.delete(target, id.getAsLong());
+            default:
+                throw new IllegalArgumentException("неизвестная операция " + op);
+        }
+    }
+
+    private Task parseTask(JsonObject json, BatchOperation.Target target) {
+        JsonElement task = json.get("task");
+        if (task == null || !task.isJsonObject()) {
+            throw new IllegalArgumentException("нет task");
+        }
+        switch (target) {
+            case EPIC:
+                return gson.fromJson(task, EpicTask.class);
+            case SUBTASK:
+                return gson.fromJson(task, SubTask.class);
+            default:
+                return gson.fromJson(task, Task.class);
+        }
+    }
+
+    private static BatchOperation.Target parseTarget(String type) {
+        switch (type) {
+            case "task":
+                return BatchOperation.Target.TASK;
+            case "epic":
+                return BatchOperation.Target.EPIC;
+            case "subtask":
+                return BatchOperation.Target.SUBTASK;
+            default:
+                throw new IllegalArgumentException("неизвестный тип " + type);
+        }
+    }
+
+    private static String requireString(JsonObject json, String name) {
+        JsonElement value = json.get(name);
+        if (value == null || value.isJsonNull()) {
+            throw new IllegalArgumentException("нет " + name);
+        }
+        return value.getAsString();
+    }
+
+    private String toJson(List<BatchResult> results) throws IOException {
+        StringWriter body = new StringWriter();
+        JsonWriter writer = gson.newJsonWriter(body);
+        writer.beginArray();
+        for (BatchResult result : results) {
+            writer.beginObject();
+            writer.name("status").value(result.getStatus().name());
+            writer.name("id").value(result.getId());
+            writer.name("message").value(result.getMessage());
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.flush();
+        return body.toString();
+    }
+}
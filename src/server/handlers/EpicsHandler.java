@@ -1,29 +1,28 @@
 package server.handlers;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import managers.TaskManager;
+import managers.TaskSnapshot;
 import models.EpicTask;
-import server.adapters.DurationAdapter;
-import server.adapters.LocalDateTimeAdapter;
+import server.HttpTaskServer;
+import server.JsonCache;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 public class EpicsHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
     private final Gson gson;
+    private final JsonCache jsonCache;
 
-    public EpicsHandler(TaskManager taskManager) {
+    public EpicsHandler(TaskManager taskManager, JsonCache jsonCache) {
         this.taskManager = taskManager;
-        this.gson = new GsonBuilder()
-                .registerTypeAdapter(Duration.class, new DurationAdapter())
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .create();
+        this.gson = HttpTaskServer.getGson();
+        this.jsonCache = jsonCache;
     }
 
     @Override
@@ -36,13 +35,20 @@ public class EpicsHandler extends BaseHttpHandler implements HttpHandler {
             switch (method) {
                 case "GET":
                     if (pathParts.length == 2) {
-                        List<models.EpicTask> epics = taskManager.getEpicTasks();
-                        sendSuccess(exchange, gson.toJson(epics));
+                        Map<String, String> query = parseQuery(exchange);
+                        TaskSnapshot snapshot = taskManager.snapshot();
+                        if (isPageRequest(query)) {
+                            sendEpicsPage(exchange, query, snapshot);
+                        } else if (!sendNotModified(exchange, snapshot.getEpicTasksVersion())) {
+                            sendJsonArray(exchange, jsonCache, snapshot::forEachEpicTask);
+                        }
                     } else if (pathParts.length == 3) {
                         long id = Long.parseLong(pathParts[2]);
-                        models.EpicTask epic = taskManager.getEpicTask(id);
+                        // Просмотр попадает в историю, а отдается экземпляр из среза с той же версией, что и в списках
+                        models.EpicTask epic = taskManager.getEpicTask(id) != null
+                                ? taskManager.snapshot().getEpicTask(id) : null;
                         if (epic != null) {
-                            sendSuccess(exchange, gson.toJson(epic));
+                            sendTask(exchange, jsonCache, epic);
                         } else {
                             sendNotFound(exchange);
                         }
@@ -75,4 +81,22 @@ public class EpicsHandler extends BaseHttpHandler implements HttpHandler {
             System.err.println(Arrays.toString(e.getStackTrace()));
         }
     }
-}
\ No newline at end of file
+
+    private void sendEpicsPage(HttpExchange exchange, Map<String, String> query, TaskSnapshot snapshot)
+            throws IOException {
+        int limit;
+        long after;
+        try {
+            limit = parseLimit(query);
+            after = parseAfterId(query);
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange, e.getMessage());
+            return;
+        }
+        if (sendNotModified(exchange, snapshot.getEpicTasksVersion())) {
+            return;
+        }
+        List<EpicTask> page = snapshot.getEpicTasks(limit, after);
+        sendPage(exchange, jsonCache, page, nextIdCursor(page, limit));
+    }
+}
@@ -0,0 +1,74 @@
+package server.handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Тело ответа заранее неизвестной длины. Пока не набран порог, байты копятся в буфере:
+// короткий ответ уходит как есть с Content-Length, длинный — чанками через gzip
+class GzipResponseStream extends OutputStream {
+    private final HttpExchange exchange;
+    private final int statusCode;
+    private final int minBytes;
+    private ByteArrayOutputStream buffer;
+    private OutputStream out;
+
+    GzipResponseStream(HttpExchange exchange, int statusCode, int minBytes) {
+        this.exchange = exchange;
+        this.statusCode = statusCode;
+        this.minBytes = minBytes;
+        this.buffer = new ByteArrayOutputStream(Math.min(minBytes, 8192));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (out != null) {
+            out.write(b);
+            return;
+        }
+        buffer.write(b);
+        if (buffer.size() >= minBytes) {
+            startGzip();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (out != null) {
+            out.write(b, off, len);
+            return;
+        }
+        buffer.write(b, off, len);
+        if (buffer.size() >= minBytes) {
+            startGzip();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out == null) {
+            exchange.sendResponseHeaders(statusCode, buffer.size());
+            out = exchange.getResponseBody();
+            buffer.writeTo(out);
+            buffer = null;
+        }
+        out.close();
+    }
+
+    private void startGzip() throws IOException {
+        exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        exchange.sendResponseHeaders(statusCode, 0);
+        out = new PooledGzipOutputStream(exchange.getResponseBody());
+        buffer.writeTo(out);
+        buffer = null;
+    }
+}
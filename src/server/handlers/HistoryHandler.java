@@ -1,37 +1,46 @@
 package server.handlers;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import managers.TaskManager;
+import managers.TaskSnapshot;
 import models.Task;
-import server.adapters.DurationAdapter;
-import server.adapters.LocalDateTimeAdapter;
+import server.JsonCache;
 
 import java.io.IOException;
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
-    private final Gson gson;
+    private final JsonCache jsonCache;
 
-    public HistoryHandler(TaskManager taskManager) {
+    public HistoryHandler(TaskManager taskManager, JsonCache jsonCache) {
         this.taskManager = taskManager;
-        this.gson = new GsonBuilder()
-                .registerTypeAdapter(Duration.class, new DurationAdapter())
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .create();
+        this.jsonCache = jsonCache;
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         try {
             if ("GET".equals(exchange.getRequestMethod())) {
-                List<Task> history = taskManager.getTasksHistory();
-                sendSuccess(exchange, gson.toJson(history));
+                Map<String, String> query = parseQuery(exchange);
+                if (!isPageRequest(query)) {
+                    // История держит живые задачи, а отдаются их экземпляры из среза с версией, общей со списками.
+                    // Задачу, удаленную между чтениями истории и среза, пропускаем
+                    TaskSnapshot snapshot = taskManager.snapshot();
+                    sendJsonArray(exchange, jsonCache, action -> {
+                        for (Task task : taskManager.getTasksHistory()) {
+                            Task stored = snapshot.find(task);
+                            if (stored != null) {
+                                action.accept(stored);
+                            }
+                        }
+                    });
+                    return;
+                }
+                sendHistoryPage(exchange, query);
             } else {
                 sendNotFound(exchange);
             }
@@ -39,4 +48,28 @@ public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
             sendInternalError(exchange);
         }
     }
+
+    // Страница идет от новых просмотров к старым, курсор следующей страницы — в заголовке X-Next-Cursor
+    private void sendHistoryPage(HttpExchange exchange, Map<String, String> query) throws IOException {
+        int limit;
+        Long after;
+        try {
+            limit = parseLimit(query);
+            after = query.containsKey("after") ? parseAfterId(query) : null;
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange, e.getMessage());
+            return;
+        }
+        List<Task> page = taskManager.getTasksHistory(limit, after);
+        String nextCursor = nextIdCursor(page, limit);
+        TaskSnapshot snapshot = taskManager.snapshot();
+        List<Task> stored = new ArrayList<>(page.size());
+        for (Task task : page) {
+            Task published = snapshot.find(task);
+            if (published != null) {
+                stored.add(published);
+            }
+        }
+        sendPage(exchange, jsonCache, stored, nextCursor);
+    }
 }
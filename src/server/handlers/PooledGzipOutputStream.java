@@ -0,0 +1,75 @@
+package server.handlers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+// Поток в формате gzip поверх Deflater из общего пула. GZIPOutputStream на каждый ответ создает
+// свой Deflater с нативной памятью; ThreadLocal не помог бы на виртуальных потоках, где поток — это запрос
+class PooledGzipOutputStream extends DeflaterOutputStream {
+    private static final int BUFFER_SIZE = 8192;
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final ArrayBlockingQueue<Deflater> pool =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
+
+    private final CRC32 crc = new CRC32();
+    private boolean finished;
+    private boolean released;
+
+    PooledGzipOutputStream(OutputStream out) throws IOException {
+        super(out, acquire(), BUFFER_SIZE);
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        super.write(b, off, len);
+        crc.update(b, off, len);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        super.finish();
+        finished = true;
+        writeInt((int) crc.getValue());
+        writeInt((int) def.getBytesRead());
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (!released) {
+                released = true;
+                release(def);
+            }
+        }
+    }
+
+    // В gzip числа пишутся младшим байтом вперед
+    private void writeInt(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+        out.write((value >>> 16) & 0xff);
+        out.write((value >>> 24) & 0xff);
+    }
+
+    private static Deflater acquire() {
+        Deflater deflater = pool.poll();
+        return deflater != null ? deflater : new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    }
+
+    private static void release(Deflater deflater) {
+        deflater.reset();
+        if (!pool.offer(deflater)) {
+            deflater.end();
+        }
+    }
+}
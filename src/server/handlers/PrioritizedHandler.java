@@ -1,37 +1,39 @@
 package server.handlers;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import managers.TaskManager;
+import managers.TaskSnapshot;
 import models.Task;
-import server.adapters.DurationAdapter;
-import server.adapters.LocalDateTimeAdapter;
+import server.JsonCache;
 
-import java.time.Duration;
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 public class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
-    private final Gson gson;
+    private final JsonCache jsonCache;
 
-    public PrioritizedHandler(TaskManager taskManager) {
+    public PrioritizedHandler(TaskManager taskManager, JsonCache jsonCache) {
         this.taskManager = taskManager;
-        this.gson = new GsonBuilder()
-                .registerTypeAdapter(Duration.class, new DurationAdapter())
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .create();
+        this.jsonCache = jsonCache;
     }
 
     @Override
     public void handle(HttpExchange exchange) {
         try {
             if ("GET".equals(exchange.getRequestMethod())) {
-                List<Task> prioritizedTasks = taskManager.getPrioritizedTasks();
-                sendSuccess(exchange, gson.toJson(prioritizedTasks));
+                Map<String, String> query = parseQuery(exchange);
+                TaskSnapshot snapshot = taskManager.snapshot();
+                if (isPageRequest(query)) {
+                    sendPrioritizedPage(exchange, query, snapshot);
+                } else if (!sendNotModified(exchange, snapshot.getPrioritizedVersion())) {
+                    sendJsonArray(exchange, jsonCache, snapshot::forEachPrioritizedTask);
+                }
             } else {
                 sendNotFound(exchange);
             }
@@ -43,4 +45,36 @@ public class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
             System.err.println(Arrays.toString(e.getStackTrace()));
         }
     }
+
+    // Порядок приоритета задается парой (startTime, id), поэтому курсор — "id@startTime" или "id" для задач без времени
+    private void sendPrioritizedPage(HttpExchange exchange, Map<String, String> query, TaskSnapshot snapshot)
+            throws IOException {
+        int limit;
+        Task after;
+        try {
+            limit = parseLimit(query);
+            after = query.containsKey("after") ? parseCursor(query.get("after")) : null;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            sendBadRequest(exchange, "Неверный курсор или limit: " + e.getMessage());
+            return;
+        }
+        if (sendNotModified(exchange, snapshot.getPrioritizedVersion())) {
+            return;
+        }
+        List<Task> page = snapshot.getPrioritizedTasks(limit, after);
+        sendPage(exchange, jsonCache, page, page.size() == limit ? toCursor(page.getLast()) : null);
+    }
+
+    private static Task parseCursor(String cursor) {
+        int separator = cursor.indexOf('@');
+        long id = Long.parseLong(separator >= 0 ? cursor.substring(0, separator) : cursor);
+        LocalDateTime startTime = separator >= 0 ? LocalDateTime.parse(cursor.substring(separator + 1)) : null;
+        Task position = new Task(null, null, null, startTime, null);
+        position.setId(id);
+        return position;
+    }
+
+    private static String toCursor(Task task) {
+        return task.getStartTime() != null ? task.getId() + "@" + task.getStartTime() : String.valueOf(task.getId());
+    }
 }
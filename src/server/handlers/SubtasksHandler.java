@@ -1,28 +1,29 @@
 package server.handlers;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import managers.TaskManager;
-import server.adapters.DurationAdapter;
-import server.adapters.LocalDateTimeAdapter;
+import managers.TaskSnapshot;
+import models.StatusEnum;
+import models.SubTask;
+import server.HttpTaskServer;
+import server.JsonCache;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 public class SubtasksHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
     private final Gson gson;
+    private final JsonCache jsonCache;
 
-    public SubtasksHandler(TaskManager taskManager) {
+    public SubtasksHandler(TaskManager taskManager, JsonCache jsonCache) {
         this.taskManager = taskManager;
-        this.gson = new GsonBuilder()
-                .registerTypeAdapter(Duration.class, new DurationAdapter())
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .create();
+        this.gson = HttpTaskServer.getGson();
+        this.jsonCache = jsonCache;
     }
 
     @Override
@@ -35,20 +36,29 @@ public class SubtasksHandler extends BaseHttpHandler implements HttpHandler {
             switch (method) {
                 case "GET":
                     if (pathParts.length == 2) {
-                        List<models.SubTask> subtasks = taskManager.getSubTasks();
-                        sendSuccess(exchange, gson.toJson(subtasks));
+                        Map<String, String> query = parseQuery(exchange);
+                        TaskSnapshot snapshot = taskManager.snapshot();
+                        if (isPageRequest(query) || query.containsKey("status")) {
+                            sendSubtasksPage(exchange, query, snapshot);
+                        } else if (!sendNotModified(exchange, snapshot.getSubTasksVersion())) {
+                            sendJsonArray(exchange, jsonCache, snapshot::forEachSubTask);
+                        }
                     } else if (pathParts.length == 3) {
                         long id = Long.parseLong(pathParts[2]);
-                        models.SubTask subtask = taskManager.getSubTask(id);
+                        // Просмотр попадает в историю, а отдается экземпляр из среза с той же версией, что и в списках
+                        models.SubTask subtask = taskManager.getSubTask(id) != null
+                                ? taskManager.snapshot().getSubTask(id) : null;
                         if (subtask != null) {
-                            sendSuccess(exchange, gson.toJson(subtask));
+                            sendTask(exchange, jsonCache, subtask);
                         } else {
                             sendNotFound(exchange);
                         }
                     } else if (pathParts.length == 4 && pathParts[2].equals("epic")) {
                         long epicId = Long.parseLong(pathParts[3]);
-                        List<models.SubTask> epicSubtasks = taskManager.getSubTasks(epicId);
-                        sendSuccess(exchange, gson.toJson(epicSubtasks));
+                        TaskSnapshot snapshot = taskManager.snapshot();
+                        if (!sendNotModified(exchange, snapshot.getSubTasksVersion())) {
+                            sendJsonArray(exchange, jsonCache, snapshot.getSubTasks(epicId)::forEach);
+                        }
                     }
                     break;
                 case "POST":
@@ -82,4 +92,30 @@ public class SubtasksHandler extends BaseHttpHandler implements HttpHandler {
             System.err.println(Arrays.toString(e.getStackTrace()));
         }
     }
+
+    private void sendSubtasksPage(HttpExchange exchange, Map<String, String> query, TaskSnapshot snapshot)
+            throws IOException {
+        int limit;
+        long after;
+        StatusEnum status;
+        try {
+            limit = parseLimit(query);
+            after = parseAfterId(query);
+            status = parseStatus(query);
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange, e.getMessage());
+            return;
+        }
+        if (sendNotModified(exchange, snapshot.getSubTasksVersion())) {
+            return;
+        }
+        if (status != null && !isPageRequest(query)) {
+            sendJsonArray(exchange, jsonCache, snapshot.getSubTasksByStatus(status)::forEach);
+            return;
+        }
+        List<SubTask> page = status != null
+                ? snapshot.getSubTasksByStatus(status, limit, after)
+                : snapshot.getSubTasks(limit, after);
+        sendPage(exchange, jsonCache, page, nextIdCursor(page, limit));
+    }
 }
@@ -1,29 +1,29 @@
 package server.handlers;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import managers.TaskManager;
+import managers.TaskSnapshot;
+import models.StatusEnum;
 import models.Task;
-import server.adapters.DurationAdapter;
-import server.adapters.LocalDateTimeAdapter;
+import server.HttpTaskServer;
+import server.JsonCache;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 public class TasksHandler extends BaseHttpHandler implements HttpHandler {
     private final TaskManager taskManager;
     private final Gson gson;
+    private final JsonCache jsonCache;
 
-    public TasksHandler(TaskManager taskManager) {
+    public TasksHandler(TaskManager taskManager, JsonCache jsonCache) {
         this.taskManager = taskManager;
-        this.gson = new GsonBuilder()
-                .registerTypeAdapter(Duration.class, new DurationAdapter())
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .create();
+        this.gson = HttpTaskServer.getGson();
+        this.jsonCache = jsonCache;
     }
 
     @Override
@@ -36,13 +36,19 @@ public class TasksHandler extends BaseHttpHandler implements HttpHandler {
             switch (method) {
                 case "GET":
                     if (pathParts.length == 2) {
-                        List<Task> tasks = taskManager.getTasks();
-                        sendSuccess(exchange, gson.toJson(tasks));
+                        Map<String, String> query = parseQuery(exchange);
+                        TaskSnapshot snapshot = taskManager.snapshot();
+                        if (isPageRequest(query) || query.containsKey("status")) {
+                            sendTasksPage(exchange, query, snapshot);
+                        } else if (!sendNotModified(exchange, snapshot.getTasksVersion())) {
+                            sendJsonArray(exchange, jsonCache, snapshot::forEachTask);
+                        }
                     } else if (pathParts.length == 3) {
                         long id = Long.parseLong(pathParts[2]);
-                        Task task = taskManager.getTask(id);
+                        // Просмотр попадает в историю, а отдается экземпляр из среза с той же версией, что и в списках
+                        Task task = taskManager.getTask(id) != null ? taskManager.snapshot().getTask(id) : null;
                         if (task != null) {
-                            sendSuccess(exchange, gson.toJson(task));
+                            sendTask(exchange, jsonCache, task);
                         } else {
                             sendNotFound(exchange);
                         }
@@ -79,4 +85,30 @@ public class TasksHandler extends BaseHttpHandler implements HttpHandler {
             System.err.println(Arrays.toString(e.getStackTrace()));
         }
     }
+
+    private void sendTasksPage(HttpExchange exchange, Map<String, String> query, TaskSnapshot snapshot)
+            throws IOException {
+        int limit;
+        long after;
+        StatusEnum status;
+        try {
+            limit = parseLimit(query);
+            after = parseAfterId(query);
+            status = parseStatus(query);
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(exchange, e.getMessage());
+            return;
+        }
+        if (sendNotModified(exchange, snapshot.getTasksVersion())) {
+            return;
+        }
+        if (status != null && !isPageRequest(query)) {
+            sendJsonArray(exchange, jsonCache, snapshot.getTasksByStatus(status)::forEach);
+            return;
+        }
+        List<Task> page = status != null
+                ? snapshot.getTasksByStatus(status, limit, after)
+                : snapshot.getTasks(limit, after);
+        sendPage(exchange, jsonCache, page, nextIdCursor(page, limit));
+    }
 }
@@ -0,0 +1,70 @@
+package managers;
+
+import models.StatusEnum;
+import models.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentFileBackedTaskManagerTest extends TaskManagerTest<ConcurrentFileBackedTaskManager> {
+    private Path tempFile;
+
+    @Override
+    protected ConcurrentFileBackedTaskManager createManager() {
+        try {
+            tempFile = Files.createTempFile("tasks", ".csv");
+            return new ConcurrentFileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        manager.close();
+        Files.deleteIfExists(tempFile);
+        Files.deleteIfExists(tempFile.resolveSibling(tempFile.getFileName() + ".journal"));
+        Files.deleteIfExists(tempFile.resolveSibling(tempFile.getFileName() + ".journal.compacting"));
+    }
+
+    @Test
+    void concurrentReadsAndWritesShouldBePersisted() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        LocalDateTime base = LocalDateTime.of(2023, 1, 1, 0, 0);
+        AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < 500; i++) {
+            LocalDateTime start = base.plusHours(i);
+            executor.execute(() -> {
+                try {
+                    Task task = new Task("Task", "Desc", StatusEnum.NEW, start, Duration.ofMinutes(30));
+                    manager.addTask(task);
+                    manager.getTask(task.getId());
+                    manager.getTask(task.getId() - 1);
+                    manager.getTasksHistory();
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        manager.close();
+
+        assertEquals(0, failures.get());
+        ConcurrentFileBackedTaskManager loaded = new ConcurrentFileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+        assertEquals(500, loaded.getTasks().size());
+        assertEquals(500, loaded.getPrioritizedTasks().size());
+        loaded.close();
+    }
+}
@@ -0,0 +1,107 @@
+package managers;
+
+import models.StatusEnum;
+import models.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHistoryManagerTest {
+
+    private static Task task(long id) {
+        Task task = new Task("task" + id, "description", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0).plusHours(id), Duration.ofMinutes(30));
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    void shouldKeepViewOrderLikeInMemoryHistory() {
+        ConcurrentHistoryManager manager = new ConcurrentHistoryManager();
+        Task task1 = task(1);
+        Task task2 = task(2);
+        Task task3 = task(3);
+
+        manager.addTaskHistory(task1);
+        manager.addTaskHistory(task2);
+        manager.addTaskHistory(task3);
+        manager.addTaskHistory(task1);
+        manager.addTaskHistory(null);
+
+        assertEquals(List.of(task2, task3, task1), manager.getTasksHistory());
+
+        manager.removeTaskHistory(3L);
+        assertEquals(List.of(task2, task1), manager.getTasksHistory());
+    }
+
+    @Test
+    void shouldReturnPagesFromNewest() {
+        ConcurrentHistoryManager manager = new ConcurrentHistoryManager();
+        for (long id = 1; id <= 5; id++) {
+            manager.addTaskHistory(task(id));
+        }
+
+        assertEquals(List.of(task(5), task(4)), manager.getTasksHistory(2, null));
+        assertEquals(List.of(task(3), task(2)), manager.getTasksHistory(2, 4L));
+        assertTrue(manager.getTasksHistory(2, 42L).isEmpty());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyViewed() {
+        ConcurrentHistoryManager manager = new ConcurrentHistoryManager(3);
+        for (long id = 1; id <= 4; id++) {
+            manager.addTaskHistory(task(id));
+        }
+        manager.addTaskHistory(task(2));
+        manager.addTaskHistory(task(5));
+
+        List<Task> history = manager.getTasksHistory();
+        assertEquals(List.of(task(4), task(2), task(5)), history);
+    }
+
+    @Test
+    void shouldReturnRemovedTaskAfterNewView() {
+        ConcurrentHistoryManager manager = new ConcurrentHistoryManager();
+        manager.addTaskHistory(task(1));
+        manager.removeTaskHistory(1L);
+        manager.addTaskHistory(task(1));
+
+        assertEquals(List.of(task(1)), manager.getTasksHistory());
+    }
+
+    @Test
+    void concurrentViewsShouldStayWithinCapacityWithoutDuplicates() throws InterruptedException {
+        ConcurrentHistoryManager manager = new ConcurrentHistoryManager(100);
+        Thread[] viewers = new Thread[8];
+        for (int t = 0; t < viewers.length; t++) {
+            int seed = t;
+            viewers[t] = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    long id = (i * 31L + seed) % 500;
+                    if (i % 10 == 0) {
+                        manager.removeTaskHistory(id);
+                    } else {
+                        manager.addTaskHistory(task(id));
+                    }
+                }
+            });
+            viewers[t].start();
+        }
+        for (Thread viewer : viewers) {
+            viewer.join();
+        }
+
+        List<Task> history = manager.getTasksHistory();
+        Set<Long> ids = new HashSet<>();
+        for (Task task : history) {
+            assertTrue(ids.add(task.getId()), "Задача " + task.getId() + " встречается в истории дважды");
+        }
+        assertTrue(history.size() <= 100);
+    }
+}
@@ -0,0 +1,204 @@
+package managers;
+
+import models.EpicTask;
+import models.StatusEnum;
+import models.SubTask;
+import models.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+
+    @Override
+    protected ConcurrentTaskManager createManager() {
+        return new ConcurrentTaskManager();
+    }
+
+    @Test
+    void concurrentAddsShouldGetUniqueIds() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        LocalDateTime base = LocalDateTime.of(2023, 1, 1, 0, 0);
+        for (int i = 0; i < 1000; i++) {
+            LocalDateTime start = base.plusHours(i);
+            executor.execute(() -> manager.addTask(new Task("Task", "Desc", StatusEnum.NEW,
+                    start, Duration.ofMinutes(30))));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        List<Task> tasks = manager.getTasks();
+        Set<Long> ids = new HashSet<>();
+        for (Task task : tasks) {
+            ids.add(task.getId());
+        }
+        assertEquals(1000, tasks.size());
+        assertEquals(1000, ids.size());
+        assertEquals(1000, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void onlyOneOfOverlappingConcurrentAddsShouldWin() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        for (int i = 0; i < 16; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    manager.addTask(new Task("Task", "Desc", StatusEnum.NEW,
+                            LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofHours(1)));
+                } catch (IllegalStateException e) {
+                    rejected.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1, manager.getTasks().size());
+        assertEquals(15, rejected.get());
+    }
+
+    @Test
+    void concurrentSubTasksShouldBeLinkedToEpic() throws InterruptedException {
+        EpicTask epic = new EpicTask("Epic", "Desc", StatusEnum.NEW);
+        manager.addEpicTask(epic);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 200; i++) {
+            executor.execute(() -> manager.addSubTask(new SubTask("Sub", "Desc", StatusEnum.DONE,
+                    null, null, epic.getId())));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(200, manager.getSubTasks(epic.getId()).size());
+        assertEquals(StatusEnum.DONE, manager.getEpicTask(epic.getId()).getStatus());
+    }
+
+    @Test
+    void readersShouldSeeConsistentSnapshotsWhileWritersRun() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        LocalDateTime base = LocalDateTime.of(2023, 1, 1, 0, 0);
+        AtomicInteger inconsistent = new AtomicInteger();
+        CountDownLatch writersDone = new CountDownLatch(2);
+        for (int writer = 0; writer < 2; writer++) {
+            int offset = writer * 1000;
+            executor.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    manager.addTask(new Task("Task", "Desc", StatusEnum.NEW,
+                            base.plusHours(offset + i), Duration.ofMinutes(30)));
+                }
+                writersDone.countDown();
+            });
+        }
+        for (int reader = 0; reader < 2; reader++) {
+            executor.execute(() -> {
+                while (writersDone.getCount() > 0) {
+                    TaskSnapshot snapshot = manager.snapshot();
+                    if (snapshot.getTasks().size() != snapshot.getPrioritizedTasks().size()) {
+                        inconsistent.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(0, inconsistent.get());
+        assertEquals(2000, manager.snapshot().getTasks().size());
+    }
+
+    @Test
+    void concurrentMovesShouldKeepEachSubTaskInOneEpic() throws InterruptedException {
+        long[] epicIds = new long[3];
+        for (int i = 0; i < epicIds.length; i++) {
+            EpicTask epic = new EpicTask("Epic " + i, "Desc", StatusEnum.NEW);
+            manager.addEpicTask(epic);
+            epicIds[i] = epic.getId();
+        }
+        long[] subTaskIds = new long[50];
+        for (int i = 0; i < subTaskIds.length; i++) {
+            SubTask subTask = new SubTask("Sub", "Desc", StatusEnum.NEW, null, null, epicIds[0]);
+            manager.addSubTask(subTask);
+            subTaskIds[i] = subTask.getId();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            int seed = thread;
+            executor.execute(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 500; i++) {
+                    SubTask move = new SubTask("Sub", "Desc", StatusEnum.IN_PROGRESS, null, null,
+                            epicIds[random.nextInt(epicIds.length)]);
+                    move.setId(subTaskIds[random.nextInt(subTaskIds.length)]);
+                    manager.updateSubTask(move);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        int linked = 0;
+        for (long epicId : epicIds) {
+            List<SubTask> subTasks = manager.taskEpicMap.get(epicId).getSubTasks();
+            for (SubTask subTask : subTasks) {
+                assertEquals(epicId, subTask.getEpicId());
+            }
+            assertEquals(subTasks.size(), manager.getSubTasks(epicId).size());
+            linked += subTasks.size();
+        }
+        assertEquals(subTaskIds.length, linked);
+    }
+
+    @Test
+    void renamesShouldNotLetOverlappingAddsThrough() throws InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 10, 0);
+        Task task = new Task("Task", "Desc", StatusEnum.NEW, start, Duration.ofHours(1));
+        manager.addTask(task);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger accepted = new AtomicInteger();
+        for (int i = 0; i < 2000; i++) {
+            int n = i;
+            executor.execute(() -> {
+                if (n % 2 == 0) {
+                    Task rename = new Task("Task " + n, "Desc", StatusEnum.NEW, start, Duration.ofHours(1));
+                    rename.setId(task.getId());
+                    manager.updateTask(rename);
+                } else {
+                    try {
+                        manager.addTask(new Task("Other", "Desc", StatusEnum.NEW,
+                                start.plusMinutes(30), Duration.ofHours(1)));
+                        accepted.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        // ожидаемо: время занято переименовываемой задачей
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(0, accepted.get());
+        assertEquals(1, manager.getTasks().size());
+        assertEquals(1, manager.getPrioritizedTasks().size());
+    }
+}
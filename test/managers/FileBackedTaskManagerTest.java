@@ -38,6 +38,25 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
     @AfterEach
     void cleanUp() throws IOException {
         Files.deleteIfExists(tempFile);
+        Files.deleteIfExists(journalFile());
+        Files.deleteIfExists(compactingJournalFile());
+        Path pages = tempFile.resolveSibling(tempFile.getFileName() + ".pages");
+        if (Files.isDirectory(pages)) {
+            try (var stream = Files.list(pages)) {
+                for (Path page : stream.toList()) {
+                    Files.delete(page);
+                }
+            }
+            Files.delete(pages);
+        }
+    }
+
+    private Path compactingJournalFile() {
+        return tempFile.resolveSibling(tempFile.getFileName() + ".journal.compacting");
+    }
+
+    private Path journalFile() {
+        return tempFile.resolveSibling(tempFile.getFileName() + ".journal");
     }
 
     @Test
@@ -199,4 +218,442 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         Path nonExistentFile = Paths.get("nonexistent_" + System.currentTimeMillis() + ".csv");
         assertThrows(ManagerLoadException.class, () -> new FileBackedTaskManager(nonExistentFile), "исключение при загрузке из несуществующего файла");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReplayJournalOnLoad() throws IOException {
+        FileBackedTaskManager journaled = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+        Task task = new Task("Task 1", "Description", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofHours(1));
+        Task removed = new Task("Task 2", "Description", StatusEnum.NEW, null, null);
+        EpicTask epic = new EpicTask("Epic", "Description", StatusEnum.NEW);
+
+        journaled.addTask(task);
+        journaled.addTask(removed);
+        journaled.addEpicTask(epic);
+        SubTask subTask = new SubTask("Sub", "Description", StatusEnum.DONE,
+                LocalDateTime.of(2023, 1, 2, 10, 0), Duration.ofHours(1), epic.getId());
+        journaled.addSubTask(subTask);
+
+        Task updated = new Task("Task 1", "Updated", StatusEnum.IN_PROGRESS,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofHours(1));
+        updated.setId(task.getId());
+        journaled.updateTask(updated);
+        journaled.removeTask(removed.getId());
+        journaled.close();
+
+        assertEquals(0, Files.size(tempFile));
+        assertTrue(Files.exists(journalFile()));
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+
+        assertEquals(1, loaded.getTasks().size());
+        assertEquals("Updated", loaded.getTask(task.getId()).getDescription());
+        assertEquals(StatusEnum.IN_PROGRESS, loaded.getTask(task.getId()).getStatus());
+        assertEquals(1, loaded.getSubTasks(epic.getId()).size());
+        assertEquals(StatusEnum.DONE, loaded.getEpicTask(epic.getId()).getStatus());
+        assertEquals(2, loaded.getPrioritizedTasks().size());
+        loaded.close();
+    }
+
+    @Test
+    void shouldCompactJournalIntoSnapshot() {
+        FileBackedTaskManager journaled = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+        Task task = new Task("Task 1", "Description", StatusEnum.NEW, null, null);
+        journaled.addTask(task);
+
+        journaled.compact();
+
+        assertFalse(Files.exists(journalFile()));
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile);
+        assertEquals(task, loaded.getTask(task.getId()));
+        journaled.close();
+    }
+
+    @Test
+    void shouldContinueIdsAfterLoad() {
+        Task task = new Task("Task 1", "Description", StatusEnum.NEW, null, null);
+        manager.addTask(task);
+
+        FileBackedTaskManager loadedManager = new FileBackedTaskManager(tempFile);
+        Task next = new Task("Task 2", "Description", StatusEnum.NEW, null, null);
+        loadedManager.addTask(next);
+
+        assertTrue(next.getId() > task.getId());
+        assertEquals(2, loadedManager.getTasks().size());
+    }
+
+    @Test
+    void shouldCompactInBackgroundWhenThresholdReached() throws InterruptedException {
+        CompactionPolicy policy = new CompactionPolicy(Long.MAX_VALUE, 3, Duration.ofHours(1));
+        FileBackedTaskManager journaled = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL, policy);
+
+        for (int i = 0; i < 3; i++) {
+            journaled.addTask(new Task("Task " + i, "Description", StatusEnum.NEW, null, null));
+        }
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (journaled.getCompactionCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, journaled.getCompactionCount());
+        assertFalse(Files.exists(compactingJournalFile()));
+        assertEquals(3, new FileBackedTaskManager(tempFile).getTasks().size());
+        journaled.close();
+    }
+
+    @Test
+    void shouldReplayUnfinishedCompaction() throws IOException {
+        Files.writeString(compactingJournalFile(), "PUT,1,Task,Task 1,NEW,Description,,,\n");
+        Files.writeString(journalFile(), "PUT,2,Task,Task 2,DONE,Description,,,\n");
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+
+        assertEquals(2, loaded.getTasks().size());
+        assertEquals(StatusEnum.DONE, loaded.getTask(2).getStatus());
+        loaded.close();
+    }
+
+    @Test
+    void shouldGroupCommitConcurrentWriters() throws InterruptedException {
+        FileBackedTaskManager journaled = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL,
+                CompactionPolicy.DEFAULT, new DurabilityPolicy(DurabilityMode.FSYNC_BATCH, Duration.ZERO));
+
+        Thread[] writers = new Thread[8];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = new Thread(() -> {
+                for (int j = 0; j < 50; j++) {
+                    journaled.addTask(new Task("Task", "Description", StatusEnum.NEW, null, null));
+                }
+            });
+            writers[i].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+        assertEquals(400, loaded.getTasks().size());
+        journaled.close();
+        loaded.close();
+    }
+
+    @Test
+    void shouldFlushBufferedJournalOnClose() {
+        FileBackedTaskManager journaled = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL,
+                CompactionPolicy.DEFAULT, new DurabilityPolicy(DurabilityMode.FSYNC_INTERVAL, Duration.ofSeconds(10)));
+        Task task = new Task("Task", "Description", StatusEnum.NEW, null, null);
+        journaled.addTask(task);
+        journaled.close();
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+        assertEquals(task, loaded.getTask(task.getId()));
+        loaded.close();
+    }
+
+    @Test
+    void shouldSaveAndLoadBinarySnapshot() throws IOException {
+        FileBackedTaskManager binary = new FileBackedTaskManager(tempFile, PersistenceMode.SNAPSHOT,
+                SnapshotFormat.BINARY);
+        Task task = new Task("Задача", "Описание", StatusEnum.IN_PROGRESS,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(90));
+        EpicTask epic = new EpicTask("Epic", "Description", StatusEnum.NEW);
+        binary.addTask(task);
+        binary.addEpicTask(epic);
+        SubTask subTask = new SubTask("Sub", "Description", StatusEnum.DONE,
+                LocalDateTime.of(2023, 1, 2, 10, 0), Duration.ofHours(1), epic.getId());
+        binary.addSubTask(subTask);
+
+        byte[] header = Files.readAllBytes(tempFile);
+        assertEquals('K', header[0]);
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile);
+        Task loadedTask = loaded.getTask(task.getId());
+        assertEquals("Задача", loadedTask.getName());
+        assertEquals(StatusEnum.IN_PROGRESS, loadedTask.getStatus());
+        assertEquals(task.getStartTime(), loadedTask.getStartTime());
+        assertEquals(Duration.ofMinutes(90), loadedTask.getDuration());
+        assertEquals(1, loaded.getSubTasks(epic.getId()).size());
+        assertEquals(StatusEnum.DONE, loaded.getEpicTask(epic.getId()).getStatus());
+    }
+
+    @Test
+    void shouldKeepStartNanosInBinarySnapshot() {
+        FileBackedTaskManager binary = new FileBackedTaskManager(tempFile, PersistenceMode.SNAPSHOT,
+                SnapshotFormat.BINARY);
+        Task task = new Task("Task", "Description", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0, 5, 123_456_789), Duration.ofMinutes(30));
+        binary.addTask(task);
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile);
+
+        assertEquals(task.getStartTime(), loaded.getTask(task.getId()).getStartTime());
+        assertEquals(task.getStartEpochMicros(), loaded.getTask(task.getId()).getStartEpochMicros());
+    }
+
+    @Test
+    void shouldImportCsvAndExportBinary() throws IOException {
+        Task task = new Task("Task 1", "Description", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofHours(1));
+        manager.addTask(task);
+
+        Path exported = Files.createTempFile("tasks", ".bin");
+        try {
+            manager.exportTo(exported, SnapshotFormat.BINARY);
+            FileBackedTaskManager loaded = new FileBackedTaskManager(exported);
+            assertEquals(task, loaded.getTask(task.getId()));
+        } finally {
+            Files.deleteIfExists(exported);
+        }
+    }
+
+    @Test
+    void shouldLinkSubtasksListedBeforeTheirEpic() throws IOException {
+        Files.writeString(tempFile, "id,type,name,status,description,epic\n"
+                + "2,SubTask,Sub,DONE,Description,1,2023-01-01T10:00,60\n"
+                + "1,EpicTask,Epic,NEW,Description,,,\n");
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile);
+
+        assertEquals(1, loaded.getSubTasks(1).size());
+        assertEquals(StatusEnum.DONE, loaded.getEpicTask(1).getStatus());
+    }
+
+    @Test
+    void shouldLoadLargeFileInChunks() throws IOException {
+        StringBuilder csv = new StringBuilder("id,type,name,status,description,epic\n");
+        int count = 50_000;
+        for (int i = 1; i <= count; i++) {
+            csv.append(i).append(",Task,Task ").append(i).append(",NEW,Description with some text,,,\n");
+        }
+        Files.writeString(tempFile, csv);
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile);
+        assertEquals(count, loaded.getTasks().size());
+
+        Task next = new Task("Next", "Description", StatusEnum.NEW, null, null);
+        loaded.addTask(next);
+        assertEquals(count + 1, next.getId());
+    }
+
+    @Test
+    void shouldRewriteOnlyChangedPages() throws IOException {
+        FileBackedTaskManager paged = new FileBackedTaskManager(tempFile, PersistenceMode.PAGED);
+        for (int i = 0; i < 2000; i++) {
+            paged.addTask(new Task("Task " + i, "Description", StatusEnum.NEW, null, null));
+        }
+        Path pages = tempFile.resolveSibling(tempFile.getFileName() + ".pages");
+        Path firstPage = pages.resolve("Task-0.csv");
+        Path secondPage = pages.resolve("Task-1.csv");
+        String secondPageBefore = Files.readString(secondPage);
+
+        Task updated = new Task("Updated", "Description", StatusEnum.DONE, null, null);
+        updated.setId(5);
+        paged.updateTask(updated);
+        paged.removeTask(6);
+
+        assertTrue(Files.readString(firstPage).contains("5,Task,Updated,DONE"));
+        assertEquals(secondPageBefore, Files.readString(secondPage));
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile, PersistenceMode.PAGED);
+        assertEquals(1999, loaded.getTasks().size());
+        assertEquals(StatusEnum.DONE, loaded.getTask(5).getStatus());
+        assertNull(loaded.getTask(6));
+    }
+
+    @Test
+    void shouldMoveSnapshotIntoPages() {
+        EpicTask epic = new EpicTask("Epic", "Description", StatusEnum.NEW);
+        manager.addEpicTask(epic);
+        manager.addSubTask(new SubTask("Sub", "Description", StatusEnum.DONE,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofHours(1), epic.getId()));
+
+        FileBackedTaskManager paged = new FileBackedTaskManager(tempFile, PersistenceMode.PAGED);
+        paged.removeEpicTask(epic.getId());
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile, PersistenceMode.PAGED);
+        assertTrue(loaded.getEpicTasks().isEmpty());
+        assertTrue(loaded.getSubTasks().isEmpty());
+    }
+
+    @Test
+    void shouldPersistBatchInJournal() {
+        FileBackedTaskManager journaled = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+        Task first = new Task("First", "Description", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofHours(1));
+        Task second = new Task("Second", "Description", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 12, 0), Duration.ofHours(1));
+        List<BatchResult> results = journaled.applyBatch(List.of(
+                BatchOperation.create(first),
+                BatchOperation.create(second)));
+        journaled.applyBatch(List.of(BatchOperation.delete(BatchOperation.Target.TASK, results.get(0).getId())));
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+
+        assertEquals(List.of("Second"), loaded.getTasks().stream().map(Task::getName).toList());
+    }
+
+    @Test
+    void shouldJournalTransactionAsOneRecord() throws IOException {
+        FileBackedTaskManager journaled = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+        EpicTask epic = new EpicTask("Epic", "Description", StatusEnum.NEW);
+        journaled.addEpicTask(epic);
+        Task task = new Task("Task", "Description", StatusEnum.NEW, null, null);
+        journaled.addTask(task);
+
+        journaled.beginTransaction()
+                .add(new SubTask("Sub", "Description", StatusEnum.DONE, null, null, epic.getId()))
+                .remove(BatchOperation.Target.TASK, task.getId())
+                .commit();
+        journaled.close();
+
+        assertEquals(3, Files.readAllLines(journalFile()).size());
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+        assertTrue(loaded.getTasks().isEmpty());
+        assertEquals(StatusEnum.DONE, loaded.getEpicTask(epic.getId()).getStatus());
+        loaded.close();
+    }
+
+    @Test
+    void shouldRollBackTransactionWhenStepFails() throws IOException {
+        FileBackedTaskManager journaled = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL) {
+            @Override
+            public void updateTask(Task updateTask) {
+                if ("fail".equals(updateTask.getName())) {
+                    throw new IllegalArgumentException("Сбой шага транзакции");
+                }
+                super.updateTask(updateTask);
+            }
+        };
+        EpicTask epic = new EpicTask("Epic", "Description", StatusEnum.NEW);
+        journaled.addEpicTask(epic);
+        SubTask subTask = new SubTask("Sub", "Description", StatusEnum.NEW,
+                LocalDateTime.of(2024, 1, 1, 10, 0), Duration.ofMinutes(30), epic.getId());
+        journaled.addSubTask(subTask);
+        Task task = new Task("Task", "Description", StatusEnum.NEW, null, null);
+        journaled.addTask(task);
+        TaskSnapshot before = journaled.snapshot();
+        long lines = Files.readAllLines(journalFile()).size();
+
+        Task renamed = new Task("Renamed", "Description", StatusEnum.DONE, null, null);
+        renamed.setId(task.getId());
+        Task failing = new Task("fail", "Description", StatusEnum.NEW, null, null);
+        failing.setId(task.getId());
+        assertThrows(IllegalArgumentException.class, () -> journaled.beginTransaction()
+                .add(new Task("New", "Description", StatusEnum.NEW, null, null))
+                .update(renamed)
+                .remove(BatchOperation.Target.EPIC, epic.getId())
+                .update(failing)
+                .commit());
+
+        assertSame(before, journaled.snapshot());
+        assertEquals(List.of(task), journaled.getTasks());
+        assertEquals("Task", journaled.getTask(task.getId()).getName());
+        assertEquals(StatusEnum.NEW, journaled.getTask(task.getId()).getStatus());
+        assertEquals(List.of(subTask), journaled.getEpicTask(epic.getId()).getSubTasks());
+        assertEquals(List.of(subTask, task), journaled.getPrioritizedTasks());
+        assertThrows(IllegalStateException.class, () -> journaled.addTask(new Task("Overlap", "Description",
+                StatusEnum.NEW, LocalDateTime.of(2024, 1, 1, 10, 10), Duration.ofMinutes(5))));
+        journaled.close();
+
+        assertEquals(lines, Files.readAllLines(journalFile()).size());
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+        assertEquals("Task", loaded.getTask(task.getId()).getName());
+        assertEquals(1, loaded.getSubTasks().size());
+        assertEquals(1, loaded.getTasks().size());
+        loaded.close();
+    }
+
+    @Test
+    void shouldSkipTornTransactionRecord() throws IOException {
+        Files.writeString(journalFile(), "PUT,1,Task,Task 1,NEW,Description,,,\n"
+                + "TX,2\u001eDEL,Task,1\u001ePUT,2,Task,Task 2,NEW,Desc");
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+
+        assertEquals(1, loaded.getTasks().size());
+        assertEquals("Task 1", loaded.getTask(1).getName());
+        loaded.close();
+    }
+
+    @Test
+    void shouldCutTornTailBeforeAppending() throws IOException {
+        Files.writeString(journalFile(), "PUT,1,Task,one,NEW,Description,,,\nPUT,2,Task,tw");
+
+        FileBackedTaskManager reopened = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+        Task three = new Task("three", "Description", StatusEnum.NEW, null, null);
+        reopened.addTask(three);
+        reopened.close();
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+        assertEquals(2, loaded.getTasks().size());
+        assertEquals("one", loaded.getTask(1).getName());
+        assertEquals("three", loaded.getTask(three.getId()).getName());
+        loaded.close();
+        assertEquals(2, Files.readAllLines(journalFile()).size());
+    }
+
+    @Test
+    void shouldCountJournalSizeInBytes() throws IOException {
+        Path path = Files.createTempFile("journal", ".log");
+        TaskJournal journal = new TaskJournal(path);
+        journal.append("PUT,1,Task,Задача,NEW,Описание \uD83D\uDE80,,,");
+        journal.append("PUT,2,Task,two,NEW,Description,,,");
+        journal.close();
+        assertEquals(Files.size(path), journal.getBytes());
+
+        TaskJournal reopened = new TaskJournal(path);
+        reopened.replay(record -> { });
+        assertEquals(Files.size(path), reopened.getBytes());
+        assertEquals(2, reopened.getRecords());
+        reopened.close();
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    void shouldReportFailedBackgroundCompaction() throws IOException, InterruptedException {
+        // Каталог на месте временного файла снимка не дает сжатию записать снимок
+        Path blocker = tempFile.resolveSibling(tempFile.getFileName() + ".tmp");
+        Files.createDirectories(blocker.resolve("busy"));
+        CompactionPolicy policy = new CompactionPolicy(Long.MAX_VALUE, 3, Duration.ofHours(1));
+        FileBackedTaskManager journaled = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL, policy);
+
+        int added = 0;
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (journaled.getCompactionFailure() == null && System.currentTimeMillis() < deadline) {
+            added++;
+            journaled.addTask(new Task("Task", "Description", StatusEnum.NEW, null, null));
+            Thread.sleep(10);
+        }
+        // Писатель после ошибки сжатия не получает чужое исключение
+        added++;
+        journaled.addTask(new Task("Task", "Description", StatusEnum.NEW, null, null));
+        assertNotNull(journaled.getCompactionFailure());
+        assertEquals(0, journaled.getCompactionCount());
+        Files.delete(blocker.resolve("busy"));
+        Files.delete(blocker);
+
+        journaled.compact();
+        assertNull(journaled.getCompactionFailure());
+        journaled.close();
+        assertEquals(added, new FileBackedTaskManager(tempFile).getTasks().size());
+    }
+
+    @Test
+    void shouldReplayTransactionWithSeparatorInName() {
+        FileBackedTaskManager journaled = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+        Task task = new Task("Task\u001eone\u001b", "Desc\u001e", StatusEnum.NEW, null, null);
+
+        journaled.beginTransaction()
+                .add(task)
+                .add(new Task("Task two", "Description", StatusEnum.NEW, null, null))
+                .commit();
+        journaled.close();
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile, PersistenceMode.JOURNAL);
+        assertEquals(2, loaded.getTasks().size());
+        assertEquals("Task\u001eone\u001b", loaded.getTask(task.getId()).getName());
+        assertEquals("Desc\u001e", loaded.getTask(task.getId()).getDescription());
+        loaded.close();
+    }
+}
@@ -83,4 +83,18 @@ class InMemoryHistoryManagerTest {
         assertFalse(histories.contains(task1));
     }
 
+    @Test
+    void getTasksHistoryPage() {
+        for (long id = 1; id <= 5; id++) {
+            Task task = new Task("task" + id, "description", StatusEnum.NEW,
+                    LocalDateTime.of(2023, 1, 1, 10, 0).plusHours(id), Duration.ofMinutes(30));
+            task.setId(id);
+            manager.addTaskHistory(task);
+        }
+
+        assertEquals(List.of(5L, 4L), manager.getTasksHistory(2, null).stream().map(Task::getId).toList());
+        assertEquals(List.of(3L, 2L), manager.getTasksHistory(2, 4L).stream().map(Task::getId).toList());
+        assertEquals(List.of(1L), manager.getTasksHistory(2, 2L).stream().map(Task::getId).toList());
+        assertTrue(manager.getTasksHistory(2, 42L).isEmpty());
+    }
 }
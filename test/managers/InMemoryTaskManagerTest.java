@@ -434,4 +434,51 @@ class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
         assertEquals(task2, prioritizedTask1);
         assertEquals(task1, prioritizedTask2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getTasksInTimeRange() {
+        Task task1 = new Task("Task1", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 9, 0), Duration.ofHours(2));
+        Task task2 = new Task("Task2", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 12, 0), Duration.ofHours(1));
+        Task task3 = new Task("Task3", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 15, 0), Duration.ofHours(1));
+        manager.addTask(task1);
+        manager.addTask(task2);
+        manager.addTask(task3);
+
+        List<Task> window = manager.getTasksInTimeRange(
+                LocalDateTime.of(2023, 1, 1, 10, 0), LocalDateTime.of(2023, 1, 1, 13, 0));
+
+        assertEquals(List.of(task1, task2), window);
+    }
+
+    @Test
+    void updateTaskShouldNotOverlapWithItself() {
+        Task task = new Task("Task", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofHours(1));
+        manager.addTask(task);
+
+        Task moved = new Task("Task", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 30), Duration.ofHours(1));
+        moved.setId(task.getId());
+        manager.updateTask(moved);
+
+        assertEquals(LocalDateTime.of(2023, 1, 1, 10, 30), manager.getTask(task.getId()).getStartTime());
+        assertEquals(1, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void deleteTaskShouldFreeTimeSlots() {
+        Task task = new Task("Task", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofHours(1));
+        manager.addTask(task);
+        manager.deleteTask();
+
+        Task sameSlot = new Task("Task", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofHours(1));
+
+        assertFalse(manager.hasTimeOverlap(sameSlot));
+        assertTrue(manager.getPrioritizedTasks().isEmpty());
+    }
+}
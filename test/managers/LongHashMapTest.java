@@ -0,0 +1,103 @@
+package managers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongHashMapTest {
+
+    @Test
+    void putGetRemove() {
+        LongHashMap<String> map = new LongHashMap<>();
+        assertNull(map.put(1, "one"));
+        assertEquals("one", map.put(1, "uno"));
+        map.put(2, "two");
+
+        assertEquals("uno", map.get(1));
+        assertTrue(map.containsKey(2));
+        assertEquals(2, map.size());
+
+        assertEquals("two", map.remove(2));
+        assertNull(map.remove(2));
+        assertNull(map.get(2));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void shouldKeepCollidingKeysReachableAfterRemoval() {
+        LongHashMap<Long> map = new LongHashMap<>(8);
+        // Ключи с шагом 1 << 20 попадают в одну ячейку и образуют общую цепочку
+        for (long i = 0; i < 10; i++) {
+            map.put(i << 20, i);
+        }
+        map.remove(3L << 20);
+        map.remove(0);
+
+        for (long i = 1; i < 10; i++) {
+            if (i != 3) {
+                assertEquals(i, map.get(i << 20));
+            }
+        }
+        assertEquals(8, map.size());
+    }
+
+    @Test
+    void shouldMatchHashMapOnRandomOperations() {
+        LongHashMap<Long> map = new LongHashMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    void valuesShouldFollowIdOrderForSequentialIds() {
+        LongHashMap<Long> map = new LongHashMap<>();
+        for (long id = 1; id <= 100; id++) {
+            map.put(id, id);
+        }
+
+        List<Long> values = map.values();
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i + 1, values.get(i));
+        }
+    }
+
+    @Test
+    void concurrentMapShouldNotLoseUpdates() throws InterruptedException {
+        ConcurrentLongHashMap<Long> map = new ConcurrentLongHashMap<>();
+        Thread[] writers = new Thread[8];
+        for (int t = 0; t < writers.length; t++) {
+            long offset = t * 10_000L;
+            writers[t] = new Thread(() -> {
+                for (long i = 0; i < 10_000; i++) {
+                    map.put(offset + i, i);
+                    assertEquals(i, map.get(offset + i));
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(80_000, map.size());
+        assertEquals(80_000, map.values().size());
+    }
+}
@@ -0,0 +1,57 @@
+package managers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentTreeTest {
+
+    @Test
+    void shouldMatchTreeMapAndKeepOldVersions() {
+        PersistentTree<Long> tree = PersistentTree.empty();
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        Random random = new Random(1);
+        PersistentTree<Long> middle = null;
+        List<Long> middleValues = null;
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(20_000);
+            if (random.nextInt(4) == 0) {
+                expected.remove(key);
+                tree = tree.remove(key, 0);
+            } else {
+                expected.put(key, (long) i);
+                tree = tree.put(key, 0, (long) i);
+            }
+            if (i == 25_000) {
+                middle = tree;
+                middleValues = new ArrayList<>(expected.values());
+            }
+        }
+
+        assertEquals(expected.size(), tree.size());
+        assertEquals(new ArrayList<>(expected.values()), tree.toList());
+        assertEquals(new ArrayList<>(expected.tailMap(10_000L, false).values()).subList(0, 100),
+                tree.after(10_000, 0, 100));
+        assertEquals(middleValues, middle.toList());
+    }
+
+    @Test
+    void shouldOrderByKeyThenTie() {
+        PersistentTree<String> tree = PersistentTree.<String>empty()
+                .put(2, 1, "b1")
+                .put(1, 5, "a5")
+                .put(2, 0, "b0")
+                .put(1, 3, "a3");
+
+        assertEquals(List.of("a3", "a5", "b0", "b1"), tree.toList());
+        assertEquals("a5", tree.get(1, 5));
+        assertNull(tree.get(1, 4));
+        assertEquals(List.of("b0", "b1"), tree.after(1, Long.MAX_VALUE, 10));
+        assertSame(tree, tree.remove(3, 0));
+    }
+}
@@ -8,6 +8,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 public abstract class TaskManagerTest<T extends TaskManager> {
@@ -44,4 +46,357 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         manager.addSubTask(subTask);
         assertEquals(subTask, manager.getSubTask(subTask.getId()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTasksPageById() {
+        for (int i = 0; i < 5; i++) {
+            manager.addTask(new Task("Task" + i, "Desc", StatusEnum.NEW,
+                    LocalDateTime.of(2023, 1, 1, 10, 0).plusHours(i), Duration.ofMinutes(30)));
+        }
+        manager.addEpicTask(new EpicTask("Epic", "Desc", StatusEnum.NEW));
+        manager.removeTask(2);
+
+        assertEquals(List.of(1L, 3L), manager.getTasks(2, 0).stream().map(Task::getId).toList());
+        assertEquals(List.of(4L, 5L), manager.getTasks(2, 3).stream().map(Task::getId).toList());
+        assertTrue(manager.getTasks(2, 5).isEmpty());
+        assertEquals(List.of(6L), manager.getEpicTasks(10, 0).stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void testForEachMatchesLists() {
+        EpicTask epic = new EpicTask("Epic", "Desc", StatusEnum.NEW);
+        manager.addEpicTask(epic);
+        manager.addTask(new Task("Task", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 12, 0), Duration.ofMinutes(30)));
+        manager.addSubTask(new SubTask("Sub", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30), epic.getId()));
+
+        List<Task> tasks = new ArrayList<>();
+        manager.forEachTask(tasks::add);
+        assertEquals(manager.getTasks(), tasks);
+
+        List<EpicTask> epics = new ArrayList<>();
+        manager.forEachEpicTask(epics::add);
+        assertEquals(manager.getEpicTasks(), epics);
+
+        List<SubTask> subTasks = new ArrayList<>();
+        manager.forEachSubTask(subTasks::add);
+        assertEquals(manager.getSubTasks(), subTasks);
+
+        List<Task> prioritized = new ArrayList<>();
+        manager.forEachPrioritizedTask(prioritized::add);
+        assertEquals(manager.getPrioritizedTasks(), prioritized);
+    }
+
+    @Test
+    void testCollectionVersions() {
+        long tasks = manager.getTasksVersion();
+        long prioritized = manager.getPrioritizedVersion();
+        Task task = new Task("Task", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 12, 0), Duration.ofMinutes(30));
+        manager.addTask(task);
+        assertTrue(manager.getTasksVersion() > tasks);
+        assertTrue(manager.getPrioritizedVersion() > prioritized);
+
+        EpicTask epic = new EpicTask("Epic", "Desc", StatusEnum.NEW);
+        manager.addEpicTask(epic);
+        long epics = manager.getEpicTasksVersion();
+        long subTasks = manager.getSubTasksVersion();
+        tasks = manager.getTasksVersion();
+        manager.addSubTask(new SubTask("Sub", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30), epic.getId()));
+        assertTrue(manager.getSubTasksVersion() > subTasks);
+        assertTrue(manager.getEpicTasksVersion() > epics);
+        assertEquals(tasks, manager.getTasksVersion());
+
+        long before = manager.getPrioritizedVersion();
+        manager.getTask(task.getId());
+        manager.getTasks();
+        assertEquals(before, manager.getPrioritizedVersion());
+    }
+
+    @Test
+    void testPrioritizedPage() {
+        Task late = new Task("Late", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 12, 0), Duration.ofMinutes(30));
+        Task early = new Task("Early", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30));
+        Task noTime = new Task("NoTime", "Desc", StatusEnum.NEW, null, null);
+        manager.addTask(late);
+        manager.addTask(early);
+        manager.addTask(noTime);
+
+        List<Task> first = manager.getPrioritizedTasks(2, null);
+        assertEquals(List.of(early, late), first);
+        assertEquals(List.of(noTime), manager.getPrioritizedTasks(2, first.getLast()));
+        assertTrue(manager.getPrioritizedTasks(2, noTime).isEmpty());
+    }
+
+    @Test
+    void testApplyBatch() {
+        Task kept = new Task("Kept", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30));
+        manager.addTask(kept);
+        Task created = new Task("Created", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 12, 0), Duration.ofMinutes(30));
+        Task overlapping = new Task("Overlap", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 15), Duration.ofMinutes(30));
+        Task missing = new Task("Missing", "Desc", StatusEnum.NEW, null, null);
+        missing.setId(999);
+
+        List<BatchResult> results = manager.applyBatch(List.of(
+                BatchOperation.create(created),
+                BatchOperation.create(overlapping),
+                BatchOperation.update(missing),
+                BatchOperation.delete(BatchOperation.Target.TASK, kept.getId()),
+                BatchOperation.delete(BatchOperation.Target.EPIC, kept.getId())));
+
+        assertEquals(5, results.size());
+        assertEquals(BatchResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(created, manager.getTask(results.get(0).getId()));
+        assertEquals(BatchResult.Status.CONFLICT, results.get(1).getStatus());
+        assertNotNull(results.get(1).getMessage());
+        assertEquals(BatchResult.Status.NOT_FOUND, results.get(2).getStatus());
+        assertEquals(BatchResult.Status.DELETED, results.get(3).getStatus());
+        assertEquals(BatchResult.Status.NOT_FOUND, results.get(4).getStatus());
+        assertEquals(List.of(created), manager.getTasks());
+    }
+
+    @Test
+    void testTransactionIsAllOrNothing() {
+        Task kept = new Task("Kept", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30));
+        manager.addTask(kept);
+        long version = manager.getTasksVersion();
+
+        TaskTransaction transaction = manager.beginTransaction()
+                .add(new Task("Free", "Desc", StatusEnum.NEW,
+                        LocalDateTime.of(2023, 1, 1, 12, 0), Duration.ofMinutes(30)))
+                .add(new Task("Overlap", "Desc", StatusEnum.NEW,
+                        LocalDateTime.of(2023, 1, 1, 10, 15), Duration.ofMinutes(30)));
+
+        assertThrows(IllegalStateException.class, transaction::commit);
+        assertEquals(List.of(kept), manager.getTasks());
+        assertEquals(version, manager.getTasksVersion());
+        assertThrows(IllegalStateException.class, transaction::commit);
+    }
+
+    @Test
+    void testTransactionSwapsTimeSlots() {
+        Task first = new Task("First", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30));
+        Task second = new Task("Second", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 11, 0), Duration.ofMinutes(30));
+        manager.addTask(first);
+        manager.addTask(second);
+
+        Task firstMoved = new Task("First", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 11, 0), Duration.ofMinutes(30));
+        firstMoved.setId(first.getId());
+        Task secondMoved = new Task("Second", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30));
+        secondMoved.setId(second.getId());
+        // По одному такие обновления не пройдут: каждое занимает еще не освобожденное время
+        manager.beginTransaction().update(firstMoved).update(secondMoved).commit();
+
+        assertEquals(List.of(second, first), manager.getPrioritizedTasks());
+        assertEquals(List.of(second), manager.getTasksInTimeRange(
+                LocalDateTime.of(2023, 1, 1, 10, 0), LocalDateTime.of(2023, 1, 1, 10, 10)));
+
+        Task clash = new Task("Clash", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 11, 10), Duration.ofMinutes(10));
+        assertThrows(IllegalStateException.class, () -> manager.beginTransaction()
+                .remove(BatchOperation.Target.TASK, second.getId())
+                .add(clash)
+                .commit());
+        assertEquals(2, manager.getTasks().size());
+    }
+
+    @Test
+    void testTransactionMovesSubTaskBetweenEpics() {
+        EpicTask from = new EpicTask("From", "Desc", StatusEnum.NEW);
+        EpicTask to = new EpicTask("To", "Desc", StatusEnum.NEW);
+        manager.addEpicTask(from);
+        manager.addEpicTask(to);
+        SubTask subTask = new SubTask("Sub", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30), from.getId());
+        manager.addSubTask(subTask);
+
+        SubTask moved = new SubTask("Sub", "Desc", StatusEnum.DONE,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30), to.getId());
+        moved.setId(subTask.getId());
+        List<BatchResult> results = manager.beginTransaction().update(moved).commit();
+
+        assertEquals(BatchResult.Status.UPDATED, results.getFirst().getStatus());
+        assertEquals(to.getId(), manager.getSubTask(subTask.getId()).getEpicId());
+        assertTrue(manager.getSubTasks(from.getId()).isEmpty());
+        assertEquals(1, manager.getSubTasks(to.getId()).size());
+        assertEquals(StatusEnum.DONE, manager.getEpicTasks().stream()
+                .filter(epic -> epic.getId() == to.getId()).findFirst().orElseThrow().getStatus());
+        assertThrows(IllegalStateException.class, () -> manager.beginTransaction()
+                .remove(BatchOperation.Target.EPIC, from.getId())
+                .remove(BatchOperation.Target.EPIC, from.getId())
+                .commit());
+        assertEquals(2, manager.getEpicTasks().size());
+    }
+
+    @Test
+    void testUpdateSubTaskKeepsHistory() {
+        EpicTask epic = new EpicTask("Epic", "Desc", StatusEnum.NEW);
+        manager.addEpicTask(epic);
+        SubTask subTask = new SubTask("Sub", "Desc", StatusEnum.NEW, null, null, epic.getId());
+        manager.addSubTask(subTask);
+
+        SubTask update = new SubTask("Sub", "Desc", StatusEnum.DONE, null, null, epic.getId());
+        update.setId(subTask.getId());
+        manager.updateSubTask(update);
+
+        assertTrue(manager.getTasksHistory().isEmpty());
+    }
+
+    @Test
+    void testSnapshotIsNotAffectedByLaterChanges() {
+        EpicTask epic = new EpicTask("Epic", "Desc", StatusEnum.NEW);
+        manager.addEpicTask(epic);
+        Task task = new Task("Task", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30));
+        manager.addTask(task);
+        TaskSnapshot before = manager.snapshot();
+
+        Task update = new Task("Renamed", "Desc", StatusEnum.DONE,
+                LocalDateTime.of(2023, 1, 1, 12, 0), Duration.ofMinutes(30));
+        update.setId(task.getId());
+        manager.updateTask(update);
+        manager.addSubTask(new SubTask("Sub", "Desc", StatusEnum.DONE,
+                LocalDateTime.of(2023, 1, 1, 9, 0), Duration.ofMinutes(30), epic.getId()));
+        TaskSnapshot after = manager.snapshot();
+
+        assertEquals("Task", before.getTasks().getFirst().getName());
+        assertTrue(before.getSubTasks().isEmpty());
+        assertEquals(StatusEnum.NEW, before.getEpicTasks().getFirst().getStatus());
+        assertEquals(List.of(task), before.getPrioritizedTasks());
+
+        assertEquals("Renamed", after.getTasks().getFirst().getName());
+        assertEquals(StatusEnum.DONE, after.getEpicTasks().getFirst().getStatus());
+        assertEquals(1, after.getEpicTasks().getFirst().getSubTasks().size());
+        assertEquals(after.getSubTasks(), after.getSubTasks(epic.getId()));
+        assertEquals("Sub", after.getPrioritizedTasks().getFirst().getName());
+        assertTrue(after.getTasksVersion() > before.getTasksVersion());
+        assertTrue(after.getEpicTasksVersion() > before.getEpicTasksVersion());
+    }
+
+    @Test
+    void testChangingReturnedTaskDoesNotAffectSnapshot() {
+        EpicTask epic = new EpicTask("Epic", "Desc", StatusEnum.NEW);
+        manager.addEpicTask(epic);
+        manager.addTask(new Task("Task", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30)));
+        manager.addSubTask(new SubTask("Sub", "Desc", StatusEnum.NEW, null, null, epic.getId()));
+        TaskSnapshot snapshot = manager.snapshot();
+
+        Task stored = snapshot.getTasksByStatus(StatusEnum.NEW).getFirst();
+        assertSame(stored, snapshot.getTask(stored.getId()));
+        assertSame(snapshot.getEpicTask(epic.getId()), snapshot.getEpicTasks().getFirst());
+        assertThrows(UnsupportedOperationException.class, () -> stored.setName("Changed"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getSubTasks().getFirst().setStatus(StatusEnum.DONE));
+        assertThrows(UnsupportedOperationException.class,
+                () -> snapshot.getEpicTasks().getFirst().getSubTasks().getFirst().setName("Changed"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getEpicTasks().getFirst().getSubTasks().clear());
+
+        Task task = manager.getTasksByStatus(StatusEnum.NEW).getFirst();
+        task.setName("Changed");
+        task.setStatus(StatusEnum.DONE);
+        task.setStartTime(LocalDateTime.of(2023, 1, 1, 8, 0));
+        manager.getSubTasks().getFirst().setStatus(StatusEnum.DONE);
+        manager.getEpicTasks().getFirst().getSubTasks().getFirst().setName("Changed");
+        manager.getPrioritizedTasks().getFirst().setStartTime(LocalDateTime.of(2023, 1, 1, 8, 0));
+
+        assertSame(snapshot, manager.snapshot());
+        assertEquals("Task", snapshot.getTasks().getFirst().getName());
+        assertEquals(List.of(snapshot.getTasks().getFirst()), snapshot.getTasksByStatus(StatusEnum.NEW));
+        assertTrue(snapshot.getTasksByStatus(StatusEnum.DONE).isEmpty());
+        assertEquals(2, snapshot.countByStatus(StatusEnum.NEW));
+        assertEquals(0, snapshot.countByStatus(StatusEnum.DONE));
+        assertEquals(LocalDateTime.of(2023, 1, 1, 10, 0), snapshot.getPrioritizedTasks().getFirst().getStartTime());
+        assertEquals(StatusEnum.NEW, snapshot.getSubTasks(epic.getId()).getFirst().getStatus());
+        assertEquals("Sub", snapshot.getEpicTasks().getFirst().getSubTasks().getFirst().getName());
+        assertEquals(manager.getTask(task.getId()).getVersion(), snapshot.getTask(task.getId()).getVersion());
+    }
+
+    @Test
+    void testStatusIndexFollowsChanges() {
+        EpicTask epic = new EpicTask("Epic", "Desc", StatusEnum.NEW);
+        manager.addEpicTask(epic);
+        Task task = new Task("Task", "Desc", StatusEnum.NEW, null, null);
+        manager.addTask(task);
+        SubTask subTask = new SubTask("Sub", "Desc", StatusEnum.IN_PROGRESS, null, null, epic.getId());
+        manager.addSubTask(subTask);
+
+        assertEquals(List.of(task), manager.getTasksByStatus(StatusEnum.NEW));
+        assertEquals(List.of(subTask), manager.getSubTasksByStatus(StatusEnum.IN_PROGRESS));
+        assertEquals(1, manager.countByStatus(StatusEnum.NEW));
+        assertEquals(1, manager.countByStatus(StatusEnum.IN_PROGRESS));
+
+        Task update = new Task("Task", "Desc", StatusEnum.DONE, null, null);
+        update.setId(task.getId());
+        manager.updateTask(update);
+        manager.removeSubTask(subTask.getId());
+
+        assertTrue(manager.getTasksByStatus(StatusEnum.NEW).isEmpty());
+        assertEquals(List.of(task), manager.getTasksByStatus(StatusEnum.DONE));
+        assertEquals(0, manager.countByStatus(StatusEnum.IN_PROGRESS));
+
+        manager.deleteTask();
+        assertEquals(0, manager.countByStatus(StatusEnum.DONE));
+    }
+
+    @Test
+    void testStatusCountsStayConsistentAcrossRepeatedUpdates() {
+        EpicTask epic = new EpicTask("Epic", "Desc", StatusEnum.NEW);
+        manager.addEpicTask(epic);
+        Task task = new Task("Task", "Desc", StatusEnum.NEW, null, null);
+        manager.addTask(task);
+        SubTask subTask = new SubTask("Sub", "Desc", StatusEnum.NEW, null, null, epic.getId());
+        manager.addSubTask(subTask);
+
+        for (StatusEnum status : List.of(StatusEnum.IN_PROGRESS, StatusEnum.DONE, StatusEnum.NEW, StatusEnum.DONE)) {
+            Task returned = manager.getTasks().getFirst();
+            returned.setStatus(status);
+            manager.updateTask(returned);
+            SubTask update = new SubTask("Sub", "Desc", status, null, null, epic.getId());
+            update.setId(subTask.getId());
+            manager.updateSubTask(update);
+        }
+
+        TaskSnapshot snapshot = manager.snapshot();
+        assertEquals(0, snapshot.countByStatus(StatusEnum.NEW));
+        assertEquals(0, snapshot.countByStatus(StatusEnum.IN_PROGRESS));
+        assertEquals(2, snapshot.countByStatus(StatusEnum.DONE));
+
+        manager.removeTask(task.getId());
+        manager.removeSubTask(subTask.getId());
+        assertEquals(0, manager.snapshot().countByStatus(StatusEnum.DONE));
+    }
+
+    @Test
+    void testSubTaskIsPrioritizedAgainAfterTimeIsRestored() {
+        EpicTask epic = new EpicTask("Epic", "Desc", StatusEnum.NEW);
+        manager.addEpicTask(epic);
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 10, 0);
+        SubTask subTask = new SubTask("Sub", "Desc", StatusEnum.NEW, start, Duration.ofMinutes(30), epic.getId());
+        manager.addSubTask(subTask);
+
+        SubTask untimed = new SubTask("Sub", "Desc", StatusEnum.NEW, null, null, epic.getId());
+        untimed.setId(subTask.getId());
+        manager.updateSubTask(untimed);
+        assertFalse(manager.getPrioritizedTasks().contains(subTask));
+
+        SubTask timed = new SubTask("Sub", "Desc", StatusEnum.NEW, start, Duration.ofMinutes(30), epic.getId());
+        timed.setId(subTask.getId());
+        manager.updateSubTask(timed);
+
+        assertTrue(manager.getPrioritizedTasks().contains(subTask));
+        assertThrows(IllegalStateException.class, () -> manager.addTask(new Task("Task", "Desc", StatusEnum.NEW,
+                start.plusMinutes(10), Duration.ofMinutes(30))));
+    }
+}
@@ -130,4 +130,54 @@ class EpicTaskTest {
 
         assertEquals(StatusEnum.IN_PROGRESS, epic.getStatus());
     }
-}
\ No newline at end of file
+
+    @Test
+    void aggregatesFollowSubTaskChanges() {
+        EpicTask epic = new EpicTask("Epic", "Desc", StatusEnum.NEW);
+        SubTask sub1 = new SubTask("Sub1", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofHours(1), 1);
+        SubTask sub2 = new SubTask("Sub2", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 12, 0), Duration.ofHours(2), 1);
+        epic.getSubTasks().add(sub1);
+        epic.getSubTasks().add(sub2);
+
+        sub1.setStartTime(LocalDateTime.of(2023, 1, 1, 15, 0));
+        assertEquals(sub2.getStartTime(), epic.getStartTime());
+        assertEquals(sub1.getEndTime(), epic.getEndTime());
+
+        sub2.setDuration(Duration.ofMinutes(30));
+        assertEquals(Duration.ofMinutes(90), epic.getDuration());
+
+        sub1.setStatus(StatusEnum.DONE);
+        sub2.setStatus(StatusEnum.DONE);
+        epic.updateStatus();
+        assertEquals(StatusEnum.DONE, epic.getStatus());
+    }
+
+    @Test
+    void aggregatesFollowSubTaskRemoval() {
+        EpicTask epic = new EpicTask("Epic", "Desc", StatusEnum.NEW);
+        SubTask sub1 = new SubTask("Sub1", "Desc", StatusEnum.DONE,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofHours(1), 1);
+        SubTask sub2 = new SubTask("Sub2", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 12, 0), Duration.ofHours(2), 1);
+        sub1.setId(2);
+        sub2.setId(3);
+        epic.getSubTasks().add(sub1);
+        epic.getSubTasks().add(sub2);
+
+        epic.getSubTasks().remove(sub2);
+        epic.updateStatus();
+        assertEquals(StatusEnum.DONE, epic.getStatus());
+        assertEquals(sub1.getEndTime(), epic.getEndTime());
+        assertEquals(Duration.ofHours(1), epic.getDuration());
+
+        // Удаленная подзадача больше не влияет на эпик
+        sub2.setStartTime(LocalDateTime.of(2022, 1, 1, 10, 0));
+        assertEquals(sub1.getStartTime(), epic.getStartTime());
+
+        epic.getSubTasks().clear();
+        assertNull(epic.getStartTime());
+        assertNull(epic.getDuration());
+    }
+}
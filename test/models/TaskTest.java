@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Objects;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -58,4 +59,56 @@ class TaskTest {
         Task task = new Task("Task", "Desc", StatusEnum.NEW, time, Duration.ofHours(1));
         assertEquals(time.plusHours(1), task.getEndTime());
     }
-}
\ No newline at end of file
+
+    @Test
+    void epochTimeShouldFollowSetters() {
+        LocalDateTime time = LocalDateTime.of(2023, 1, 1, 10, 0, 0, 123_456_000);
+        Task task = new Task("Task", "Desc", StatusEnum.NEW, time, Duration.ofHours(1));
+        long startMicros = time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + 123_456;
+
+        assertEquals(startMicros, task.getStartEpochMicros());
+        assertEquals(startMicros + 3_600_000_000L, task.getEndEpochMicros());
+
+        task.setDuration(null);
+        assertNull(task.getEndTime());
+        assertEquals(Task.NO_TIME, task.getEndEpochMicros());
+
+        task.setStartTime(null);
+        assertEquals(Task.NO_TIME, task.getStartEpochMicros());
+    }
+
+    @Test
+    void timeShouldBeRebuiltExactlyFromStoredValues() {
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 10, 0, 59, 999_999_999);
+        Task task = new Task("Task", "Desc", StatusEnum.NEW, start, Duration.ofNanos(1));
+
+        assertEquals(start, task.getStartTime());
+        assertEquals(Duration.ofNanos(1), task.getDuration());
+        assertEquals(LocalDateTime.of(2023, 1, 1, 10, 1), task.getEndTime());
+        assertEquals(Task.toEpochMicros(task.getEndTime()), task.getEndEpochMicros());
+
+        task.setDuration(Duration.ofHours(-2));
+        assertEquals(start.minusHours(2), task.getEndTime());
+        assertEquals(Task.toEpochMicros(start.minusHours(2)), task.getEndEpochMicros());
+
+        task.setDuration(null);
+        assertNull(task.getEndTime());
+        assertEquals(Task.NO_TIME, task.getEndEpochMicros());
+        task.setStartTime(null);
+        assertNull(task.getStartTime());
+        assertEquals(Task.NO_TIME, task.getStartEpochMicros());
+    }
+
+    @Test
+    void everyChangeShouldGetNewVersion() {
+        Task task = new Task("Task", "Desc", StatusEnum.NEW, null, null);
+        long created = task.getVersion();
+
+        assertEquals(created, task.getVersion());
+        task.setName("Renamed");
+        long renamed = task.getVersion();
+        assertTrue(renamed > created);
+        task.setStartTime(LocalDateTime.of(2023, 1, 1, 10, 0));
+        assertTrue(task.getVersion() > renamed);
+    }
+}
@@ -1,7 +1,6 @@
 package server;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import managers.Managers;
 import managers.TaskManager;
@@ -12,8 +11,6 @@ import models.Task;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import server.adapters.DurationAdapter;
-import server.adapters.LocalDateTimeAdapter;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
@@ -25,6 +22,7 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,10 +38,7 @@ class HttpTaskServerTest {
         server = new HttpTaskServer(taskManager);
         server.start();
         httpClient = HttpClient.newHttpClient();
-        gson = new GsonBuilder()
-                .registerTypeAdapter(Duration.class, new DurationAdapter())
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .create();
+        gson = HttpTaskServer.getGson();
     }
 
     @AfterEach
@@ -201,4 +196,47 @@ class HttpTaskServerTest {
         assertEquals(task1, tasks.getFirst());
         assertEquals(task2, tasks.getLast());
     }
+
+    @Test
+    void virtualThreadServerShouldHandleConcurrentRequests() throws Exception {
+        TaskManager concurrentManager = Managers.getConcurrentTaskManager();
+        HttpTaskServer virtualServer = new HttpTaskServer(concurrentManager,
+                new ServerConfig(8081, 64, ExecutorMode.VIRTUAL_THREADS, 0, Duration.ofSeconds(5)));
+        virtualServer.start();
+        try {
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                Task task = new Task("task" + i, "description" + i, StatusEnum.NEW,
+                        LocalDateTime.of(2023, 1, 1, 0, 0).plusHours(i),
+                        Duration.ofMinutes(30));
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:8081/tasks"))
+                        .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(task)))
+                        .build();
+                responses.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(201, response.get().statusCode());
+            }
+            assertEquals(50, concurrentManager.getTasks().size());
+        } finally {
+            virtualServer.stop();
+        }
+    }
+
+    @Test
+    void stopShouldNotWaitWhenNoRequestsInFlight() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks"))
+                .GET()
+                .build();
+        httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        HttpTaskServer poolServer = new HttpTaskServer(taskManager,
+                new ServerConfig(8082, 0, ExecutorMode.PLATFORM_POOL, 2, Duration.ofSeconds(5)));
+        poolServer.start();
+        long started = System.nanoTime();
+        poolServer.stop();
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(Duration.ofSeconds(2)) < 0);
+    }
 }
@@ -0,0 +1,99 @@
+package server;
+
+import models.EpicTask;
+import models.StatusEnum;
+import models.SubTask;
+import models.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonCacheTest {
+
+    private static Task task(long id, String name) {
+        Task task = new Task(name, "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30));
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    void repeatedReadShouldHitCache() {
+        JsonCache cache = new JsonCache(HttpTaskServer.getGson(), 1024);
+        Task task = task(1, "Task");
+
+        byte[] first = cache.toJson(task);
+        byte[] second = cache.toJson(task);
+
+        assertSame(first, second);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(first.length, cache.getBytes());
+    }
+
+    @Test
+    void changedTaskShouldBeSerializedAgain() {
+        JsonCache cache = new JsonCache(HttpTaskServer.getGson(), 1024);
+        Task task = task(1, "Task");
+        cache.toJson(task);
+
+        task.setName("Renamed");
+
+        assertTrue(new String(cache.toJson(task)).contains("Renamed"));
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void epicShouldBeSerializedAgainWhenSubTaskChanges() {
+        JsonCache cache = new JsonCache(HttpTaskServer.getGson(), 1024);
+        EpicTask epic = new EpicTask("Epic", "Desc", StatusEnum.NEW);
+        epic.setId(1);
+        SubTask subTask = new SubTask("Sub", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30), 1);
+        subTask.setId(2);
+        epic.getSubTasks().add(subTask);
+        cache.toJson(epic);
+
+        subTask.setDuration(Duration.ofMinutes(45));
+
+        assertTrue(new String(cache.toJson(epic)).contains("\"duration\":45"));
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    void leastRecentlyReadShouldBeEvicted() {
+        Task first = task(1, "First");
+        Task second = task(2, "Second");
+        Task third = task(3, "Third");
+        int size = HttpTaskServer.getGson().toJson(second).length();
+        JsonCache cache = new JsonCache(HttpTaskServer.getGson(), 2L * size + 1);
+
+        cache.toJson(first);
+        cache.toJson(second);
+        cache.toJson(first);
+        cache.toJson(third);
+
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.size());
+        cache.toJson(first);
+        assertEquals(2, cache.getHits());
+        cache.toJson(second);
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    void zeroLimitShouldDisableCache() {
+        JsonCache cache = new JsonCache(HttpTaskServer.getGson(), 0);
+        Task task = task(1, "Task");
+
+        cache.toJson(task);
+        cache.toJson(task);
+
+        assertEquals(0, cache.getHits());
+        assertEquals(0, cache.size());
+    }
+}
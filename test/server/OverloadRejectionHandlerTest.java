@@ -0,0 +1,49 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OverloadRejectionHandlerTest {
+
+    @Test
+    void overflowShouldRunOutsideCallerInRejectingMode() throws Exception {
+        OverloadRejectionHandler overload = new OverloadRejectionHandler();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), overload);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocked = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        pool.execute(blocked);
+        pool.execute(blocked);
+
+        CompletableFuture<Thread> thread = new CompletableFuture<>();
+        CompletableFuture<Boolean> rejecting = new CompletableFuture<>();
+        pool.execute(() -> {
+            thread.complete(Thread.currentThread());
+            rejecting.complete(OverloadRejectionHandler.isRejecting());
+        });
+
+        assertNotSame(Thread.currentThread(), thread.get(5, TimeUnit.SECONDS));
+        assertTrue(rejecting.get(5, TimeUnit.SECONDS));
+        assertFalse(OverloadRejectionHandler.isRejecting());
+
+        release.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertThrows(RejectedExecutionException.class, () -> pool.execute(() -> { }));
+        overload.shutdown();
+    }
+}
@@ -0,0 +1,106 @@
+package server.adapters;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import models.EpicTask;
+import models.StatusEnum;
+import models.SubTask;
+import models.Task;
+import org.junit.jupiter.api.Test;
+import server.HttpTaskServer;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskAdapterTest {
+    private final Gson gson = HttpTaskServer.getGson();
+
+    @Test
+    void taskShouldSurviveRoundTrip() {
+        Task task = new Task("Task", "Desc", StatusEnum.IN_PROGRESS,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(90));
+        task.setId(7);
+
+        Task restored = gson.fromJson(gson.toJson(task), Task.class);
+
+        assertEquals(7, restored.getId());
+        assertEquals("Task", restored.getName());
+        assertEquals("Desc", restored.getDescription());
+        assertEquals(StatusEnum.IN_PROGRESS, restored.getStatus());
+        assertEquals(task.getStartTime(), restored.getStartTime());
+        assertEquals(task.getDuration(), restored.getDuration());
+    }
+
+    @Test
+    void nullFieldsShouldBeOmitted() {
+        Task task = new Task("Task", null, StatusEnum.NEW, null, null);
+        task.setId(1);
+
+        assertEquals("{\"id\":1,\"name\":\"Task\",\"status\":\"NEW\"}", gson.toJson(task));
+    }
+
+    @Test
+    void epicShouldWriteSubTaskIds() {
+        EpicTask epic = new EpicTask("Epic", "Desc", StatusEnum.NEW);
+        epic.setId(1);
+        SubTask sub1 = new SubTask("Sub1", "Desc", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30), 1);
+        sub1.setId(2);
+        SubTask sub2 = new SubTask("Sub2", "Desc", StatusEnum.NEW, null, null, 1);
+        sub2.setId(3);
+        epic.getSubTasks().add(sub1);
+        epic.getSubTasks().add(sub2);
+
+        String json = gson.toJson(epic);
+
+        assertTrue(json.contains("\"subTaskIds\":[2,3]"));
+        assertFalse(json.contains("Sub1"));
+        EpicTask restored = gson.fromJson(json, EpicTask.class);
+        assertEquals(1, restored.getId());
+        assertTrue(restored.getSubTasks().isEmpty());
+    }
+
+    @Test
+    void listShouldUseRuntimeTypeOfElements() {
+        SubTask subTask = new SubTask("Sub", "Desc", StatusEnum.DONE, null, null, 5);
+        subTask.setId(6);
+        List<Task> tasks = List.of(subTask);
+        Type listOfSubTasks = new TypeToken<ArrayList<SubTask>>(){}.getType();
+
+        List<SubTask> restored = gson.fromJson(gson.toJson(tasks), listOfSubTasks);
+
+        assertEquals(5, restored.getFirst().getEpicId());
+        assertEquals(StatusEnum.DONE, restored.getFirst().getStatus());
+    }
+
+    @Test
+    void dateTimeShouldMatchIsoFormatter() {
+        List<LocalDateTime> times = List.of(
+                LocalDateTime.of(2023, 1, 1, 10, 0),
+                LocalDateTime.of(999, 12, 31, 23, 59, 59),
+                LocalDateTime.of(2023, 6, 15, 8, 5, 7, 500_000_000),
+                LocalDateTime.of(2023, 6, 15, 8, 5, 7, 123_456_789),
+                LocalDateTime.of(2023, 6, 15, 8, 5, 7, 1_000),
+                LocalDateTime.of(12345, 1, 1, 0, 0),
+                LocalDateTime.of(-5, 1, 1, 0, 0));
+
+        for (LocalDateTime time : times) {
+            assertEquals("\"" + time.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "\"", gson.toJson(time));
+            assertEquals(time, gson.fromJson(gson.toJson(time), LocalDateTime.class));
+        }
+    }
+
+    @Test
+    void invalidDateTimeShouldFailAsBefore() {
+        assertThrows(DateTimeParseException.class, () -> gson.fromJson("\"2023-02-30T10:00:00\"", LocalDateTime.class));
+        assertThrows(DateTimeParseException.class, () -> gson.fromJson("\"2023-01-01 10:00:00\"", LocalDateTime.class));
+        assertEquals(LocalDateTime.of(2023, 1, 1, 10, 0), gson.fromJson("\"2023-01-01T10:00\"", LocalDateTime.class));
+    }
+}
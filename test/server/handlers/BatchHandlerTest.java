@@ -0,0 +1,144 @@
+package server.handlers;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import managers.Managers;
+import managers.TaskManager;
+import models.EpicTask;
+import models.StatusEnum;
+import models.SubTask;
+import models.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.HttpTaskServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchHandlerTest {
+
+    private HttpTaskServer taskServer;
+    private HttpClient httpClient;
+    private TaskManager taskManager;
+    private final Gson gson = HttpTaskServer.getGson();
+    private final String baseUrl = "http://localhost:8080";
+
+    @BeforeEach
+    void setUp() throws IOException {
+        taskManager = Managers.getInMemoryTaskManager();
+        taskServer = new HttpTaskServer(taskManager);
+        httpClient = HttpClient.newHttpClient();
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        taskServer.stop();
+    }
+
+    private HttpResponse<String> postBatch(String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String operation(String op, String type, Task task) {
+        return "{\"op\":\"" + op + "\",\"type\":\"" + type + "\",\"task\":" + gson.toJson(task) + "}";
+    }
+
+    @Test
+    void handle_PostArray_ShouldApplyOperationsInOrder() throws IOException, InterruptedException {
+        EpicTask epic = new EpicTask("Epic", "Description", StatusEnum.NEW);
+        taskManager.addEpicTask(epic);
+        Task removed = new Task("Removed", "Description", StatusEnum.NEW, null, null);
+        taskManager.addTask(removed);
+
+        Task task = new Task("Task", "Description", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30));
+        SubTask overlapping = new SubTask("Sub", "Description", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 10), Duration.ofMinutes(30), epic.getId());
+        String body = "[" + operation("create", "task", task) + ","
+                + operation("create", "subtask", overlapping) + ","
+                + "{\"op\":\"delete\",\"type\":\"task\",\"id\":" + removed.getId() + "},"
+                + "{\"op\":\"delete\",\"type\":\"epic\",\"id\":999}]";
+
+        HttpResponse<String> response = postBatch(body);
+
+        assertEquals(200, response.statusCode());
+        JsonArray results = gson.fromJson(response.body(), JsonArray.class);
+        assertEquals(4, results.size());
+        assertEquals("CREATED", results.get(0).getAsJsonObject().get("status").getAsString());
+        assertEquals("CONFLICT", results.get(1).getAsJsonObject().get("status").getAsString());
+        assertEquals("DELETED", results.get(2).getAsJsonObject().get("status").getAsString());
+        assertEquals("NOT_FOUND", results.get(3).getAsJsonObject().get("status").getAsString());
+        assertEquals(1, taskManager.getTasks().size());
+        assertEquals("Task", taskManager.getTasks().getFirst().getName());
+        assertTrue(taskManager.getSubTasks().isEmpty());
+    }
+
+    @Test
+    void handle_PostNdjson_ShouldCreateAndUpdate() throws IOException, InterruptedException {
+        Task task = new Task("Task", "Description", StatusEnum.NEW, null, null);
+        taskManager.addTask(task);
+        Task update = new Task("Task", "Description", StatusEnum.DONE, null, null);
+        update.setId(task.getId());
+        Task created = new Task("Created", "Description", StatusEnum.NEW, null, null);
+
+        HttpResponse<String> response = postBatch(operation("update", "task", update) + "\n\n"
+                + operation("create", "task", created) + "\n");
+
+        assertEquals(200, response.statusCode());
+        JsonArray results = gson.fromJson(response.body(), JsonArray.class);
+        JsonObject updated = results.get(0).getAsJsonObject();
+        assertEquals("UPDATED", updated.get("status").getAsString());
+        assertEquals(task.getId(), updated.get("id").getAsLong());
+        assertEquals("CREATED", results.get(1).getAsJsonObject().get("status").getAsString());
+        assertEquals(StatusEnum.DONE, taskManager.getTask(task.getId()).getStatus());
+        assertEquals(2, taskManager.getTasks().size());
+    }
+
+    @Test
+    void handle_PostInvalidOperation_ShouldReturnBadRequest() throws IOException, InterruptedException {
+        Task task = new Task("Task", "Description", StatusEnum.NEW, null, null);
+
+        HttpResponse<String> response = postBatch("[" + operation("create", "task", task) + ","
+                + "{\"op\":\"move\",\"type\":\"task\",\"id\":1}]");
+
+        assertEquals(400, response.statusCode());
+        assertTrue(taskManager.getTasks().isEmpty());
+        assertEquals(400, postBatch("[{\"op\":").statusCode());
+    }
+
+    @Test
+    void handle_PostAtomicWithConflict_ShouldChangeNothing() throws IOException, InterruptedException {
+        Task existing = new Task("Existing", "Description", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30));
+        taskManager.addTask(existing);
+        Task free = new Task("Free", "Description", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 12, 0), Duration.ofMinutes(30));
+        Task overlapping = new Task("Overlap", "Description", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 10), Duration.ofMinutes(30));
+        String body = "[" + operation("create", "task", free) + "," + operation("create", "task", overlapping) + "]";
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/batch?atomic=true"))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(406, response.statusCode());
+        assertEquals(1, taskManager.getTasks().size());
+    }
+}
@@ -1,7 +1,6 @@
 package server.handlers;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import managers.Managers;
 import managers.TaskManager;
@@ -12,8 +11,6 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import server.HttpTaskServer;
-import server.adapters.DurationAdapter;
-import server.adapters.LocalDateTimeAdapter;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
@@ -41,10 +38,7 @@ class EpicsHandlerTest {
         taskManager = Managers.getInMemoryTaskManager();
         taskServer = new HttpTaskServer(taskManager);
         httpClient = HttpClient.newHttpClient();
-        gson = new GsonBuilder()
-                .registerTypeAdapter(Duration.class, new DurationAdapter())
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .create();
+        gson = HttpTaskServer.getGson();
         taskServer.start();
     }
 
@@ -214,4 +208,24 @@ class EpicsHandlerTest {
         assertEquals(200, response.statusCode());
         assertEquals(0, taskManager.getEpicTasks().size());
     }
+
+    @Test
+    void handle_GetEpicByIdAndList_ShouldShareCachedJson() throws IOException, InterruptedException {
+
+        EpicTask epic = new EpicTask("Epic", "Description", StatusEnum.NEW);
+        taskManager.addEpicTask(epic);
+        taskManager.addSubTask(new SubTask("Sub", "Description", StatusEnum.DONE,
+                LocalDateTime.of(2024, 1, 1, 10, 0), Duration.ofMinutes(30), epic.getId()));
+
+        for (String path : List.of("/epics/" + epic.getId(), "/epics", "/epics/" + epic.getId(), "/epics", "/history")) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(baseUrl + path))
+                    .GET()
+                    .build();
+            assertEquals(200, httpClient.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+
+        assertEquals(1, taskServer.getJsonCache().getMisses());
+        assertEquals(4, taskServer.getJsonCache().getHits());
+    }
 }
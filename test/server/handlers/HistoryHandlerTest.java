@@ -1,7 +1,6 @@
 package server.handlers;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import managers.Managers;
 import managers.TaskManager;
@@ -11,8 +10,6 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import server.HttpTaskServer;
-import server.adapters.DurationAdapter;
-import server.adapters.LocalDateTimeAdapter;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
@@ -26,6 +23,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class HistoryHandlerTest {
     private HttpTaskServer server;
@@ -39,10 +37,7 @@ public class HistoryHandlerTest {
         server = new HttpTaskServer(taskManager);
         server.start();
         httpClient = HttpClient.newHttpClient();
-        gson = new GsonBuilder()
-                .registerTypeAdapter(Duration.class, new DurationAdapter())
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .create();
+        gson = HttpTaskServer.getGson();
     }
 
     @AfterEach
@@ -98,4 +93,41 @@ public class HistoryHandlerTest {
         assertEquals(404, response.statusCode());
         assertEquals("{\"message\":\"Not Found\"}", response.body());
     }
+
+    @Test
+    void getHistoryPageShouldWalkFromNewestWithCursor() throws IOException, InterruptedException {
+        for (int i = 1; i <= 5; i++) {
+            taskManager.addTask(new Task("task" + i, "description" + i, StatusEnum.NEW,
+                    LocalDateTime.of(2023, i, 1, 10, 0), Duration.ofMinutes(30)));
+            taskManager.getTask(i);
+        }
+
+        HttpResponse<String> first = httpClient.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/history?limit=2"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, first.statusCode());
+        List<Task> firstPage = parseTasks(first.body());
+        assertEquals(List.of(5L, 4L), firstPage.stream().map(Task::getId).toList());
+        assertEquals("4", first.headers().firstValue("X-Next-Cursor").orElseThrow());
+
+        HttpResponse<String> last = httpClient.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/history?limit=3&after=2"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(List.of(1L), parseTasks(last.body()).stream().map(Task::getId).toList());
+        assertTrue(last.headers().firstValue("X-Next-Cursor").isEmpty());
+    }
+
+    @Test
+    void getHistoryPageShouldRejectInvalidLimit() throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/history?limit=0"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode());
+    }
 }
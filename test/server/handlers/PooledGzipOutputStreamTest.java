@@ -0,0 +1,51 @@
+package server.handlers;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PooledGzipOutputStreamTest {
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        try (PooledGzipOutputStream out = new PooledGzipOutputStream(target)) {
+            out.write(data, 0, data.length / 2);
+            out.write(data[data.length / 2]);
+            out.write(data, data.length / 2 + 1, data.length - data.length / 2 - 1);
+        }
+        return target.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    void outputShouldBeReadableByGzipInputStream() throws IOException {
+        byte[] data = "{\"name\":\"Задача\",\"description\":\"Описание\"},".repeat(1000)
+                .getBytes(StandardCharsets.UTF_8);
+
+        byte[] compressed = gzip(data);
+
+        assertArrayEquals(data, gunzip(compressed));
+        assertTrue(compressed.length < data.length / 10);
+    }
+
+    @Test
+    void reusedDeflaterShouldStartFromCleanState() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            byte[] data = ("task" + i + ",").repeat(100 + i).getBytes(StandardCharsets.UTF_8);
+            assertArrayEquals(data, gunzip(gzip(data)));
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package server.handlers;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import managers.Managers;
 import managers.TaskManager;
@@ -11,8 +10,6 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import server.HttpTaskServer;
-import server.adapters.DurationAdapter;
-import server.adapters.LocalDateTimeAdapter;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
@@ -39,10 +36,7 @@ public class PrioritizedHandlerTest {
         server = new HttpTaskServer(taskManager);
         server.start();
         httpClient = HttpClient.newHttpClient();
-        gson = new GsonBuilder()
-                .registerTypeAdapter(Duration.class, new DurationAdapter())
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .create();
+        gson = HttpTaskServer.getGson();
     }
 
     @AfterEach
@@ -95,4 +89,30 @@ public class PrioritizedHandlerTest {
         assertEquals(404, response.statusCode());
         assertEquals("{\"message\":\"Not Found\"}", response.body());
     }
+
+    @Test
+    void getPrioritizedPageShouldContinueFromCursor() throws IOException, InterruptedException {
+        for (int i = 3; i >= 1; i--) {
+            taskManager.addTask(new Task("task" + i, "description" + i, StatusEnum.NEW,
+                    LocalDateTime.of(2023, 1, i, 10, 0), Duration.ofMinutes(30)));
+        }
+
+        HttpResponse<String> first = httpClient.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/prioritized?limit=2"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, first.statusCode());
+        List<Task> firstPage = parseTasks(first.body());
+        assertEquals(List.of(3L, 2L), firstPage.stream().map(Task::getId).toList());
+        String cursor = first.headers().firstValue("X-Next-Cursor").orElseThrow();
+        assertEquals("2@2023-01-02T10:00", cursor);
+
+        HttpResponse<String> second = httpClient.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/prioritized?limit=2&after=" + cursor))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(List.of(1L), parseTasks(second.body()).stream().map(Task::getId).toList());
+    }
 }
@@ -1,7 +1,6 @@
 package server.handlers;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import managers.Managers;
 import managers.TaskManager;
@@ -11,21 +10,25 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import server.HttpTaskServer;
-import server.adapters.DurationAdapter;
-import server.adapters.LocalDateTimeAdapter;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Type;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TasksHandlerTest {
 
@@ -41,10 +44,7 @@ class TasksHandlerTest {
         taskManager = Managers.getInMemoryTaskManager();
         taskServer = new HttpTaskServer(taskManager);
         httpClient = HttpClient.newHttpClient();
-        gson = new GsonBuilder()
-                .registerTypeAdapter(Duration.class, new DurationAdapter())
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .create();
+        gson = HttpTaskServer.getGson();
         taskServer.start();
     }
 
@@ -53,6 +53,11 @@ class TasksHandlerTest {
         taskServer.stop();
     }
 
+    private List<Task> parseTasks(String bodyGson) {
+        Type listOfTasks = new TypeToken<ArrayList<Task>>(){}.getType();
+        return gson.fromJson(bodyGson, listOfTasks);
+    }
+
     @Test
     void handle_GetAllTasks_ShouldReturnTasksList() throws IOException, InterruptedException {
 
@@ -228,4 +233,160 @@ class TasksHandlerTest {
         assertEquals(1, taskManager.getTasks().size());
         assertEquals(task2, taskManager.getTasks().getFirst());
     }
+
+    @Test
+    void getTasksPageShouldReturnNextCursor() throws IOException, InterruptedException {
+        for (int i = 1; i <= 3; i++) {
+            taskManager.addTask(new Task("task" + i, "description" + i, StatusEnum.NEW,
+                    LocalDateTime.of(2023, 1, i, 10, 0), Duration.ofMinutes(30)));
+        }
+
+        HttpResponse<String> first = httpClient.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks?limit=2"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, first.statusCode());
+        assertEquals(2, parseTasks(first.body()).size());
+        assertEquals("2", first.headers().firstValue("X-Next-Cursor").orElseThrow());
+
+        HttpResponse<String> second = httpClient.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks?limit=2&after=2"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        List<Task> secondPage = parseTasks(second.body());
+        assertEquals(1, secondPage.size());
+        assertEquals(3, secondPage.getFirst().getId());
+        assertTrue(second.headers().firstValue("X-Next-Cursor").isEmpty());
+    }
+
+    @Test
+    void getTasksPageShouldRejectInvalidCursor() throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks?after=abc"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode());
+    }
+
+    @Test
+    void getTasksShouldStreamLargeListInChunks() throws IOException, InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            taskManager.addTask(new Task("task" + i, "description" + i, StatusEnum.NEW,
+                    LocalDateTime.of(2023, 1, 1, 0, 0).plusHours(i), Duration.ofMinutes(30)));
+        }
+
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Length").isEmpty());
+        assertEquals(taskManager.getTasks(), parseTasks(response.body()));
+    }
+
+    @Test
+    void getTaskShouldReturnUpdatedTaskAfterCachedRead() throws IOException, InterruptedException {
+        Task task = new Task("task", "description", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30));
+        taskManager.addTask(task);
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks/" + task.getId()))
+                .GET()
+                .build();
+        httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        Task update = new Task("task", "description", StatusEnum.DONE,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30));
+        update.setId(task.getId());
+        taskManager.updateTask(update);
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(StatusEnum.DONE, gson.fromJson(response.body(), Task.class).getStatus());
+    }
+
+    @Test
+    void getTasksShouldAnswerNotModifiedForMatchingEtag() throws IOException, InterruptedException {
+        taskManager.addTask(new Task("task1", "description1", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30)));
+
+        HttpResponse<String> first = httpClient.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+
+        HttpRequest conditional = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks"))
+                .header("If-None-Match", etag)
+                .GET()
+                .build();
+        HttpResponse<String> notModified = httpClient.send(conditional, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(304, notModified.statusCode());
+        assertEquals("", notModified.body());
+        assertEquals(etag, notModified.headers().firstValue("ETag").orElseThrow());
+
+        taskManager.addTask(new Task("task2", "description2", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 2, 10, 0), Duration.ofMinutes(30)));
+        HttpResponse<String> changed = httpClient.send(conditional, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, changed.statusCode());
+        assertEquals(2, parseTasks(changed.body()).size());
+        assertNotEquals(etag, changed.headers().firstValue("ETag").orElseThrow());
+    }
+
+    @Test
+    void getTasksShouldBeCompressedOnlyAboveThreshold() throws IOException, InterruptedException {
+        taskManager.addTask(new Task("task", "description", StatusEnum.NEW,
+                LocalDateTime.of(2023, 1, 1, 10, 0), Duration.ofMinutes(30)));
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks"))
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+
+        HttpResponse<String> small = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertTrue(small.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals(1, parseTasks(small.body()).size());
+
+        for (int i = 1; i < 100; i++) {
+            taskManager.addTask(new Task("task" + i, "description" + i, StatusEnum.NEW,
+                    LocalDateTime.of(2023, 1, 1, 10, 0).plusHours(i), Duration.ofMinutes(30)));
+        }
+        HttpResponse<byte[]> large = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals("gzip", large.headers().firstValue("Content-Encoding").orElseThrow());
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(large.body()))) {
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(taskManager.getTasks(), parseTasks(body));
+        }
+    }
+
+    @Test
+    void handle_GetTasksByStatus_ShouldReturnOnlyMatching() throws IOException, InterruptedException {
+        Task done = new Task("done", "description", StatusEnum.DONE, null, null);
+        taskManager.addTask(new Task("new", "description", StatusEnum.NEW, null, null));
+        taskManager.addTask(done);
+        taskManager.addTask(new Task("done2", "description", StatusEnum.DONE, null, null));
+
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks?status=DONE")).GET().build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> page = httpClient.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks?status=done&limit=1")).GET().build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> invalid = httpClient.send(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/tasks?status=LATER")).GET().build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        List<Task> tasks = parseTasks(response.body());
+        assertEquals(2, tasks.size());
+        assertTrue(tasks.stream().allMatch(task -> task.getStatus() == StatusEnum.DONE));
+        assertEquals(200, page.statusCode());
+        assertEquals(List.of(done), parseTasks(page.body()));
+        assertEquals(400, invalid.statusCode());
+    }
 }